@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Class PropertiesFile loads and stores the {@link Properties} backing {@link ResourceManifest} and
+ * {@link ResourceStatsCatalog}.
+ * <p>
+ * A store writes a temporary file beside the target and atomically moves it over the target, so a reader never
+ * sees a partially written file, and a failed store leaves the previous file in place.
+ */
+class PropertiesFile
+  {
+  private PropertiesFile()
+    {
+    }
+
+  /**
+   * Method load reads the given file into the given properties, if the file exists.
+   *
+   * @param file
+   * @param properties
+   * @throws IOException
+   */
+  static void load( File file, Properties properties ) throws IOException
+    {
+    if( !file.exists() )
+      return;
+
+    InputStream inputStream = new FileInputStream( file );
+
+    try
+      {
+      properties.load( inputStream );
+      }
+    finally
+      {
+      inputStream.close();
+      }
+    }
+
+  /**
+   * Method store writes the given properties to the given file, replacing it.
+   *
+   * @param file
+   * @param properties
+   * @param comments
+   * @throws IOException
+   */
+  static void store( File file, Properties properties, String comments ) throws IOException
+    {
+    File parent = file.getAbsoluteFile().getParentFile();
+
+    if( parent != null && !parent.exists() && !parent.mkdirs() )
+      throw new IOException( "unable to create directory: " + parent );
+
+    File temp = new File( file.getPath() + ".tmp" );
+    OutputStream outputStream = new FileOutputStream( temp );
+
+    try
+      {
+      properties.store( outputStream, comments );
+      }
+    finally
+      {
+      outputStream.close();
+      }
+
+    Files.move( temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+  }
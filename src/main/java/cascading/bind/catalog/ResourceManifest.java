@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Class ResourceManifest persists the last known modified time of {@link Resource} instances to a local file.
+ * <p>
+ * It is used by {@link cascading.bind.process.CascadeFactory} when running incrementally, for resources whose
+ * protocol does not report reliable modified times. Calling {@link #touch(Resource)} marks a resource as changed.
+ */
+public class ResourceManifest
+  {
+  private final File file;
+  private final Properties entries = new Properties();
+
+  public ResourceManifest( File file ) throws IOException
+    {
+    if( file == null )
+      throw new IllegalArgumentException( "file may not be null" );
+
+    this.file = file;
+
+    PropertiesFile.load( file, entries );
+    }
+
+  public File getFile()
+    {
+    return file;
+    }
+
+  /**
+   * Method keyFor returns the key a resource is stored under, made from its context, protocol, format,
+   * and identifier.
+   *
+   * @param resource
+   * @return String
+   */
+  public static String keyFor( Resource resource )
+    {
+    return resource.getContext() + "|" + resource.getProtocol() + "|" + resource.getFormat() + "|" + resource.getIdentifier();
+    }
+
+  /**
+   * Method getModifiedTime returns the recorded modified time of the given resource, or -1 if none was recorded.
+   *
+   * @param resource
+   * @return long
+   */
+  public synchronized long getModifiedTime( Resource resource )
+    {
+    String value = entries.getProperty( keyFor( resource ) );
+
+    if( value == null )
+      return -1;
+
+    return Long.parseLong( value );
+    }
+
+  public synchronized void setModifiedTime( Resource resource, long modifiedTime )
+    {
+    entries.setProperty( keyFor( resource ), Long.toString( modifiedTime ) );
+    }
+
+  /**
+   * Method touch records the given resource as modified now.
+   *
+   * @param resource
+   */
+  public void touch( Resource resource )
+    {
+    setModifiedTime( resource, System.currentTimeMillis() );
+    }
+
+  public synchronized boolean remove( Resource resource )
+    {
+    return entries.remove( keyFor( resource ) ) != null;
+    }
+
+  /**
+   * Method store writes all recorded modified times to the manifest file, replacing it.
+   *
+   * @throws IOException
+   */
+  public synchronized void store() throws IOException
+    {
+    PropertiesFile.store( file, entries, "cascading.bind resource manifest" );
+    }
+  }
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog;
+
+import java.io.Serializable;
+
+/**
+ * Class ResourceStats holds the statistics last recorded for a {@link Resource} by a completed flow.
+ * <p>
+ * Any value that could not be determined is -1. Read and write rates are in records per second.
+ *
+ * @see ResourceStatsCatalog
+ */
+public final class ResourceStats implements Serializable
+  {
+  private final long size;
+  private final long records;
+  private final double readRate;
+  private final double writeRate;
+  private final long modifiedTime;
+
+  public ResourceStats( long size, long records, double readRate, double writeRate, long modifiedTime )
+    {
+    this.size = size;
+    this.records = records;
+    this.readRate = readRate;
+    this.writeRate = writeRate;
+    this.modifiedTime = modifiedTime;
+    }
+
+  /**
+   * Method getSize returns the size of the resource in bytes, or -1 if unknown.
+   *
+   * @return long
+   */
+  public long getSize()
+    {
+    return size;
+    }
+
+  /**
+   * Method getRecords returns the number of records in the resource, or -1 if unknown.
+   *
+   * @return long
+   */
+  public long getRecords()
+    {
+    return records;
+    }
+
+  public double getReadRate()
+    {
+    return readRate;
+    }
+
+  public double getWriteRate()
+    {
+    return writeRate;
+    }
+
+  /**
+   * Method getModifiedTime returns the modified time of the resource when these statistics were recorded,
+   * or -1 if unknown.
+   *
+   * @return long
+   */
+  public long getModifiedTime()
+    {
+    return modifiedTime;
+    }
+
+  /**
+   * Method merge returns new statistics taking every known value from the given statistics, and any value unknown
+   * there from these.
+   *
+   * @param stats
+   * @return ResourceStats
+   */
+  public ResourceStats merge( ResourceStats stats )
+    {
+    return new ResourceStats(
+      stats.size >= 0 ? stats.size : size,
+      stats.records >= 0 ? stats.records : records,
+      stats.readRate >= 0 ? stats.readRate : readRate,
+      stats.writeRate >= 0 ? stats.writeRate : writeRate,
+      stats.modifiedTime >= 0 ? stats.modifiedTime : modifiedTime
+    );
+    }
+
+  String encode()
+    {
+    return size + "," + records + "," + readRate + "," + writeRate + "," + modifiedTime;
+    }
+
+  static ResourceStats decode( String value )
+    {
+    String[] values = value.split( "," );
+
+    if( values.length != 5 )
+      throw new IllegalArgumentException( "invalid resource stats: " + value );
+
+    return new ResourceStats( Long.parseLong( values[ 0 ] ), Long.parseLong( values[ 1 ] ), Double.parseDouble( values[ 2 ] ), Double.parseDouble( values[ 3 ] ), Long.parseLong( values[ 4 ] ) );
+    }
+
+  @Override
+  public boolean equals( Object object )
+    {
+    if( this == object )
+      return true;
+    if( object == null || getClass() != object.getClass() )
+      return false;
+
+    ResourceStats that = (ResourceStats) object;
+
+    if( size != that.size )
+      return false;
+    if( records != that.records )
+      return false;
+    if( Double.compare( that.readRate, readRate ) != 0 )
+      return false;
+    if( Double.compare( that.writeRate, writeRate ) != 0 )
+      return false;
+    if( modifiedTime != that.modifiedTime )
+      return false;
+
+    return true;
+    }
+
+  @Override
+  public int hashCode()
+    {
+    int result = (int) ( size ^ ( size >>> 32 ) );
+    result = 31 * result + (int) ( records ^ ( records >>> 32 ) );
+    long temp = Double.doubleToLongBits( readRate );
+    result = 31 * result + (int) ( temp ^ ( temp >>> 32 ) );
+    temp = Double.doubleToLongBits( writeRate );
+    result = 31 * result + (int) ( temp ^ ( temp >>> 32 ) );
+    result = 31 * result + (int) ( modifiedTime ^ ( modifiedTime >>> 32 ) );
+    return result;
+    }
+
+  @Override
+  public String toString()
+    {
+    final StringBuilder sb = new StringBuilder();
+    sb.append( "ResourceStats" );
+    sb.append( "{size=" ).append( size );
+    sb.append( ", records=" ).append( records );
+    sb.append( ", readRate=" ).append( readRate );
+    sb.append( ", writeRate=" ).append( writeRate );
+    sb.append( ", modifiedTime=" ).append( modifiedTime );
+    sb.append( '}' );
+    return sb.toString();
+    }
+  }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Class ResourceStatsCatalog persists the {@link ResourceStats} last recorded for {@link Resource} instances to a
+ * local file, keyed by {@link ResourceManifest#keyFor(Resource)}.
+ * <p>
+ * It is populated by {@link cascading.bind.process.ResourceStatsListener} after every successful flow, when set on a
+ * {@link cascading.bind.process.ProcessFactory}, and may be consulted when planning and scheduling.
+ */
+public class ResourceStatsCatalog
+  {
+  private final File file;
+  private final Properties entries = new Properties();
+
+  public ResourceStatsCatalog( File file ) throws IOException
+    {
+    if( file == null )
+      throw new IllegalArgumentException( "file may not be null" );
+
+    this.file = file;
+
+    PropertiesFile.load( file, entries );
+    }
+
+  public File getFile()
+    {
+    return file;
+    }
+
+  /**
+   * Method getStats returns the statistics recorded for the given resource, or null if none were recorded.
+   *
+   * @param resource
+   * @return ResourceStats or null
+   */
+  public synchronized ResourceStats getStats( Resource resource )
+    {
+    String value = entries.getProperty( ResourceManifest.keyFor( resource ) );
+
+    if( value == null )
+      return null;
+
+    return ResourceStats.decode( value );
+    }
+
+  /**
+   * Method record merges the given statistics into any recorded for the given resource, so values unknown to the
+   * given statistics are retained.
+   *
+   * @param resource
+   * @param stats
+   */
+  public synchronized void record( Resource resource, ResourceStats stats )
+    {
+    ResourceStats current = getStats( resource );
+
+    if( current != null )
+      stats = current.merge( stats );
+
+    setStats( resource, stats );
+    }
+
+  public synchronized void setStats( Resource resource, ResourceStats stats )
+    {
+    entries.setProperty( ResourceManifest.keyFor( resource ), stats.encode() );
+    }
+
+  public synchronized boolean remove( Resource resource )
+    {
+    return entries.remove( ResourceManifest.keyFor( resource ) ) != null;
+    }
+
+  /**
+   * Method store writes all recorded statistics to the catalog file, replacing it.
+   *
+   * @throws IOException
+   */
+  public synchronized void store() throws IOException
+    {
+    PropertiesFile.store( file, entries, "cascading.bind resource statistics" );
+    }
+  }
@@ -71,6 +71,14 @@ public class Stereotype<Protocol, Format> implements Serializable
   @JsonSerialize(using = FieldsSerializer.class)
   @JsonDeserialize(using = FieldsDeserializer.class)
   Fields fields;
+  @JsonProperty
+  int numBuckets;
+  @JsonSerialize(using = FieldsSerializer.class)
+  @JsonDeserialize(using = FieldsDeserializer.class)
+  Fields bucketFields;
+  @JsonSerialize(using = FieldsSerializer.class)
+  @JsonDeserialize(using = FieldsDeserializer.class)
+  Fields sortFields;
 
   @JsonIgnore
   final Map<Point<Protocol, Format>, Scheme> staticSchemes = new HashMap<Point<Protocol, Format>, Scheme>();
@@ -109,6 +117,10 @@ public class Stereotype<Protocol, Format> implements Serializable
   public Stereotype( Stereotype<Protocol, Format> stereotype, String name )
     {
     this( stereotype.staticSchemes, stereotype.getDefaultProtocol(), stereotype.getDefaultFormat(), name, stereotype.getFields() );
+
+    this.numBuckets = stereotype.numBuckets;
+    this.bucketFields = stereotype.bucketFields;
+    this.sortFields = stereotype.sortFields;
     }
 
   protected Stereotype( Map<Point<Protocol, Format>, Scheme> staticSchemes, Protocol defaultProtocol, Format defaultFormat, String name, Fields fields )
@@ -148,6 +160,54 @@ public class Stereotype<Protocol, Format> implements Serializable
     return fields;
     }
 
+  /**
+   * Method setBucketing declares that every resource of this stereotype is written in the given number of buckets,
+   * where each tuple is placed in a bucket by the hash of its bucket fields, and the tuples of each bucket are sorted
+   * by the given sort fields.
+   * <p>
+   * A source name bound to a bucketed stereotype is expected to be bound to one resource per bucket, in bucket order.
+   * All stereotypes joined by their bucket fields must be written with the same bucketing function.
+   *
+   * @param numBuckets   the number of buckets, or 0 if not bucketed
+   * @param bucketFields the fields hashed to find a tuple's bucket
+   * @param sortFields   the fields each bucket is sorted by, or null if unsorted
+   */
+  public void setBucketing( int numBuckets, Fields bucketFields, Fields sortFields )
+    {
+    if( numBuckets < 0 )
+      throw new IllegalArgumentException( "numBuckets may not be negative" );
+
+    if( numBuckets != 0 && ( bucketFields == null || !bucketFields.isDefined() ) )
+      throw new IllegalArgumentException( "bucketFields must be declared when bucketed, in stereotype: " + getName() );
+
+    if( sortFields != null && !sortFields.isDefined() )
+      throw new IllegalArgumentException( "sortFields must be declared, in stereotype: " + getName() );
+
+    this.numBuckets = numBuckets;
+    this.bucketFields = numBuckets == 0 ? null : bucketFields;
+    this.sortFields = sortFields;
+    }
+
+  public boolean isBucketed()
+    {
+    return numBuckets != 0;
+    }
+
+  public int getNumBuckets()
+    {
+    return numBuckets;
+    }
+
+  public Fields getBucketFields()
+    {
+    return bucketFields;
+    }
+
+  public Fields getSortFields()
+    {
+    return sortFields;
+    }
+
   public Collection<Format> getAllFormats()
     {
     Set<Format> formats = new HashSet<Format>();
@@ -275,6 +335,12 @@ public class Stereotype<Protocol, Format> implements Serializable
       return false;
     if( staticSchemes != null ? !staticSchemes.equals( that.staticSchemes ) : that.staticSchemes != null )
       return false;
+    if( numBuckets != that.numBuckets )
+      return false;
+    if( bucketFields != null ? !bucketFields.equals( that.bucketFields ) : that.bucketFields != null )
+      return false;
+    if( sortFields != null ? !sortFields.equals( that.sortFields ) : that.sortFields != null )
+      return false;
 
     return true;
     }
@@ -286,6 +352,9 @@ public class Stereotype<Protocol, Format> implements Serializable
     result = 31 * result + ( defaultProtocol != null ? defaultProtocol.hashCode() : 0 );
     result = 31 * result + ( fields != null ? fields.hashCode() : 0 );
     result = 31 * result + ( staticSchemes != null ? staticSchemes.hashCode() : 0 );
+    result = 31 * result + numBuckets;
+    result = 31 * result + ( bucketFields != null ? bucketFields.hashCode() : 0 );
+    result = 31 * result + ( sortFields != null ? sortFields.hashCode() : 0 );
     return result;
     }
   }
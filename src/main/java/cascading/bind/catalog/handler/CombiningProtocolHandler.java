@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.util.List;
+import java.util.Properties;
+
+import cascading.bind.catalog.Resource;
+import cascading.scheme.Scheme;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+
+/**
+ * Interface CombiningProtocolHandler is a {@link ProtocolHandler} that can create a single source {@link Tap}
+ * reading many small resources as one read unit, for example as one input split, instead of one Tap per resource.
+ * <p>
+ * Used by {@link cascading.bind.process.FlowFactory} when source coalescing is enabled.
+ */
+public interface CombiningProtocolHandler<Protocol, Format> extends ProtocolHandler<Protocol, Format>
+  {
+  /**
+   * Method createCombinedTap returns a new source Tap reading every tuple of all the given resources, which all share
+   * the same context, protocol, format, and the given Scheme.
+   *
+   * @param properties
+   * @param scheme
+   * @param resources
+   * @param role
+   * @return Tap
+   */
+  Tap createCombinedTap( Properties properties, Scheme scheme, List<Resource<Protocol, Format, SinkMode>> resources, Role role );
+  }
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Class DelimitedTranscoder is a {@link FormatTranscoder} between two delimited text formats, for example CSV and
+ * TSV, that only differ by their delimiter and quote characters.
+ * <p>
+ * Quoted source fields are unquoted, and a field is only quoted in the sink if it contains the sink delimiter,
+ * sink quote, or a line break. A quote within a quoted field is escaped by doubling it, in both formats. Records
+ * are always written with a trailing newline.
+ * <p>
+ * Delimiters and quotes must be ASCII characters, so the transcoder is safe for UTF-8 and other ASCII
+ * compatible encodings.
+ */
+public class DelimitedTranscoder implements FormatTranscoder
+  {
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final int NONE = Integer.MIN_VALUE;
+
+  private final int sourceDelimiter;
+  private final int sourceQuote;
+  private final int sinkDelimiter;
+  private final int sinkQuote;
+
+  public DelimitedTranscoder( char sourceDelimiter, Character sourceQuote, char sinkDelimiter, Character sinkQuote )
+    {
+    this.sourceDelimiter = toByte( sourceDelimiter );
+    this.sourceQuote = sourceQuote == null ? NONE : toByte( sourceQuote );
+    this.sinkDelimiter = toByte( sinkDelimiter );
+    this.sinkQuote = sinkQuote == null ? NONE : toByte( sinkQuote );
+    }
+
+  private static int toByte( char character )
+    {
+    if( character > 127 || character == '\n' || character == '\r' )
+      throw new IllegalArgumentException( "delimiters and quotes must be ASCII characters other than line breaks, received: " + (int) character );
+
+    return character;
+    }
+
+  @Override
+  public long transcode( ReadableByteChannel input, WritableByteChannel output ) throws IOException
+    {
+    ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+    Output out = new Output( output );
+    byte[] field = new byte[ 256 ];
+    int length = 0;
+    boolean inQuotes = false;
+    boolean afterQuote = false;
+    boolean inRecord = false;
+    long records = 0;
+
+    while( input.read( buffer ) != -1 )
+      {
+      buffer.flip();
+
+      while( buffer.hasRemaining() )
+        {
+        byte current = buffer.get();
+
+        if( inQuotes )
+          {
+          if( current == sourceQuote )
+            {
+            inQuotes = false;
+            afterQuote = true;
+            continue;
+            }
+
+          field = append( field, length++, current );
+          continue;
+          }
+
+        if( afterQuote && current == sourceQuote )
+          {
+          field = append( field, length++, current );
+          inQuotes = true;
+          afterQuote = false;
+          continue;
+          }
+
+        afterQuote = false;
+
+        if( current == sourceQuote && length == 0 )
+          {
+          inQuotes = true;
+          inRecord = true;
+          }
+        else if( current == sourceDelimiter )
+          {
+          writeField( out, field, length );
+          out.put( (byte) sinkDelimiter );
+          length = 0;
+          inRecord = true;
+          }
+        else if( current == '\n' )
+          {
+          writeField( out, field, length );
+          out.put( (byte) '\n' );
+          length = 0;
+          inRecord = false;
+          records++;
+          }
+        else if( current != '\r' )
+          {
+          field = append( field, length++, current );
+          inRecord = true;
+          }
+        }
+
+      buffer.clear();
+      }
+
+    if( inQuotes )
+      throw new IOException( "unterminated quoted field in record: " + ( records + 1 ) );
+
+    if( inRecord )
+      {
+      writeField( out, field, length );
+      out.put( (byte) '\n' );
+      records++;
+      }
+
+    out.flush();
+
+    return records;
+    }
+
+  private static byte[] append( byte[] field, int index, byte value )
+    {
+    if( index == field.length )
+      field = Arrays.copyOf( field, field.length * 2 );
+
+    field[ index ] = value;
+
+    return field;
+    }
+
+  private void writeField( Output out, byte[] field, int length ) throws IOException
+    {
+    boolean quote = false;
+
+    for( int i = 0; sinkQuote != NONE && i < length && !quote; i++ )
+      quote = field[ i ] == sinkDelimiter || field[ i ] == sinkQuote || field[ i ] == '\n' || field[ i ] == '\r';
+
+    if( quote )
+      out.put( (byte) sinkQuote );
+
+    for( int i = 0; i < length; i++ )
+      {
+      if( quote && field[ i ] == sinkQuote )
+        out.put( (byte) sinkQuote );
+
+      out.put( field[ i ] );
+      }
+
+    if( quote )
+      out.put( (byte) sinkQuote );
+    }
+
+  /** Buffers the bytes written to a channel. */
+  private static class Output
+    {
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+
+    Output( WritableByteChannel channel )
+      {
+      this.channel = channel;
+      }
+
+    void put( byte value ) throws IOException
+      {
+      if( !buffer.hasRemaining() )
+        flush();
+
+      buffer.put( value );
+      }
+
+    void flush() throws IOException
+      {
+      buffer.flip();
+
+      while( buffer.hasRemaining() )
+        channel.write( buffer );
+
+      buffer.clear();
+      }
+    }
+  }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import cascading.bind.catalog.Stereotype;
+import cascading.scheme.Scheme;
+import cascading.tuple.Fields;
+
+/**
+ * Interface FilteringFormatHandler is a {@link FormatHandler} that can create a source {@link Scheme} evaluating
+ * {@link Predicate} instances while decoding, for example by skipping blocks whose statistics cannot match.
+ */
+public interface FilteringFormatHandler<Protocol, Format> extends FormatHandler<Protocol, Format>
+  {
+  /**
+   * Method createScheme returns a new source Scheme for the given stereotype, where every tuple read must satisfy all
+   * the given predicates. Every predicate the returned Scheme fully applies must be added to the given applied set.
+   * <p>
+   * The projection, if not null, has the same meaning as in
+   * {@link ProjectingFormatHandler#createScheme(Properties, Stereotype, Object, Object, Role, Fields)}.
+   *
+   * @param properties
+   * @param stereotype
+   * @param protocol
+   * @param format
+   * @param role
+   * @param projection
+   * @param predicates
+   * @param applied
+   * @return Scheme
+   */
+  Scheme createScheme( Properties properties, Stereotype<Protocol, Format> stereotype, Protocol protocol, Format format, Role role, Fields projection, List<Predicate> predicates, Set<Predicate> applied );
+  }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import cascading.bind.catalog.Resource;
+import cascading.scheme.Scheme;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+
+/**
+ * Interface FilteringProtocolHandler is a {@link ProtocolHandler} that can create a source {@link Tap} evaluating
+ * {@link Predicate} instances at the resource, for example as a query against a remote service, so that
+ * fewer tuples are transferred.
+ */
+public interface FilteringProtocolHandler<Protocol, Format> extends ProtocolHandler<Protocol, Format>
+  {
+  /**
+   * Method createTap returns a new source Tap for the given resource, where every tuple read must satisfy all the
+   * given predicates. Every predicate the returned Tap fully applies, so that no tuple failing it will be read, must be
+   * added to the given applied set.
+   * <p>
+   * Predicates not added to the applied set are evaluated after the resource is read.
+   *
+   * @param properties
+   * @param scheme
+   * @param resource
+   * @param role
+   * @param predicates
+   * @param applied
+   * @return Tap
+   */
+  Tap createTap( Properties properties, Scheme scheme, Resource<Protocol, Format, SinkMode> resource, Role role, List<Predicate> predicates, Set<Predicate> applied );
+  }
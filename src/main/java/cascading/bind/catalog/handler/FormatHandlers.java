@@ -30,8 +30,10 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
+import cascading.bind.catalog.Stereotype;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -86,6 +88,29 @@ public class FormatHandlers<Protocol, Format> extends AbstractList<FormatHandler
     return null;
     }
 
+  /**
+   * Method findTranscoderFor returns the {@link FormatTranscoder} between the given source and sink, if the handler
+   * found for the source protocol and format is also the handler found for the sink protocol and format, and is a
+   * {@link TranscodingFormatHandler}. The transcoder then reproduces the records of the Schemes that handler creates.
+   *
+   * @param properties
+   * @param stereotype
+   * @param sourceProtocol
+   * @param sourceFormat
+   * @param sinkProtocol
+   * @param sinkFormat
+   * @return FormatTranscoder or null
+   */
+  public FormatTranscoder findTranscoderFor( Properties properties, Stereotype<Protocol, Format> stereotype, Protocol sourceProtocol, Format sourceFormat, Protocol sinkProtocol, Format sinkFormat )
+    {
+    FormatHandler<Protocol, Format> handler = findHandlerFor( sourceProtocol, sourceFormat );
+
+    if( !( handler instanceof TranscodingFormatHandler ) || handler != findHandlerFor( sinkProtocol, sinkFormat ) )
+      return null;
+
+    return ( (TranscodingFormatHandler<Protocol, Format>) handler ).createTranscoder( properties, stereotype, sourceProtocol, sourceFormat, sinkProtocol, sinkFormat );
+    }
+
   public Set<Format> getFormats()
     {
     Set<Format> formats = new HashSet<Format>();
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Interface FormatTranscoder rewrites the bytes of one data format as another, record by record, without
+ * parsing the records into tuples.
+ *
+ * @see TranscodingFormatHandler
+ */
+public interface FormatTranscoder extends Serializable
+  {
+  /**
+   * Method transcode reads all the bytes from the given input, and writes them transcoded to the given output.
+   *
+   * @param input
+   * @param output
+   * @return the number of records transcoded
+   * @throws IOException
+   */
+  long transcode( ReadableByteChannel input, WritableByteChannel output ) throws IOException;
+  }
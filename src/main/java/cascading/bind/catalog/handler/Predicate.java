@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.io.Serializable;
+
+import cascading.tuple.TupleEntry;
+
+/**
+ * Class Predicate is a simple comparison of a named field against a constant value, that a
+ * {@link FilteringProtocolHandler} or {@link FilteringFormatHandler} may evaluate while reading a resource.
+ * <p>
+ * Comparisons follow SQL semantics, a null field value never matches any operator other than
+ * {@link Operator#IS_NULL}. Numeric values are compared by their double value, all other values by their
+ * natural order.
+ */
+public final class Predicate implements Serializable
+  {
+  public enum Operator
+    {
+      EQ, NE, LT, LE, GT, GE, IS_NULL, NOT_NULL
+    }
+
+  private final String field;
+  private final Operator operator;
+  private final Comparable value;
+
+  public static Predicate eq( String field, Comparable value )
+    {
+    return new Predicate( field, Operator.EQ, value );
+    }
+
+  public static Predicate ne( String field, Comparable value )
+    {
+    return new Predicate( field, Operator.NE, value );
+    }
+
+  public static Predicate lt( String field, Comparable value )
+    {
+    return new Predicate( field, Operator.LT, value );
+    }
+
+  public static Predicate le( String field, Comparable value )
+    {
+    return new Predicate( field, Operator.LE, value );
+    }
+
+  public static Predicate gt( String field, Comparable value )
+    {
+    return new Predicate( field, Operator.GT, value );
+    }
+
+  public static Predicate ge( String field, Comparable value )
+    {
+    return new Predicate( field, Operator.GE, value );
+    }
+
+  public static Predicate isNull( String field )
+    {
+    return new Predicate( field, Operator.IS_NULL, null );
+    }
+
+  public static Predicate notNull( String field )
+    {
+    return new Predicate( field, Operator.NOT_NULL, null );
+    }
+
+  public Predicate( String field, Operator operator, Comparable value )
+    {
+    if( field == null || field.isEmpty() )
+      throw new IllegalArgumentException( "field may not be null or empty" );
+
+    if( operator == null )
+      throw new IllegalArgumentException( "operator may not be null" );
+
+    if( value == null && operator != Operator.IS_NULL && operator != Operator.NOT_NULL )
+      throw new IllegalArgumentException( "value may not be null for operator: " + operator );
+
+    this.field = field;
+    this.operator = operator;
+    this.value = value;
+    }
+
+  public String getField()
+    {
+    return field;
+    }
+
+  public Operator getOperator()
+    {
+    return operator;
+    }
+
+  public Comparable getValue()
+    {
+    return value;
+    }
+
+  /**
+   * Method matches returns true if the value of this predicate's field in the given entry satisfies this predicate.
+   *
+   * @param entry
+   * @return boolean
+   */
+  public boolean matches( TupleEntry entry )
+    {
+    Object actual = entry.getObject( field );
+
+    if( operator == Operator.IS_NULL )
+      return actual == null;
+
+    if( operator == Operator.NOT_NULL || actual == null )
+      return actual != null;
+
+    int result = compare( actual );
+
+    switch( operator )
+      {
+      case EQ:
+        return result == 0;
+      case NE:
+        return result != 0;
+      case LT:
+        return result < 0;
+      case LE:
+        return result <= 0;
+      case GT:
+        return result > 0;
+      case GE:
+        return result >= 0;
+      default:
+        throw new IllegalStateException( "unknown operator: " + operator );
+      }
+    }
+
+  private int compare( Object actual )
+    {
+    if( actual instanceof Number && value instanceof Number )
+      return Double.compare( ( (Number) actual ).doubleValue(), ( (Number) value ).doubleValue() );
+
+    if( !value.getClass().isInstance( actual ) )
+      throw new IllegalStateException( "field: " + field + ", with value type: " + actual.getClass().getName() + ", not comparable to: " + value.getClass().getName() );
+
+    return ( (Comparable) actual ).compareTo( value );
+    }
+
+  @Override
+  public boolean equals( Object object )
+    {
+    if( this == object )
+      return true;
+    if( object == null || getClass() != object.getClass() )
+      return false;
+
+    Predicate predicate = (Predicate) object;
+
+    if( !field.equals( predicate.field ) )
+      return false;
+    if( operator != predicate.operator )
+      return false;
+    if( value != null ? !value.equals( predicate.value ) : predicate.value != null )
+      return false;
+
+    return true;
+    }
+
+  @Override
+  public int hashCode()
+    {
+    int result = field.hashCode();
+    result = 31 * result + operator.hashCode();
+    result = 31 * result + ( value != null ? value.hashCode() : 0 );
+    return result;
+    }
+
+  @Override
+  public String toString()
+    {
+    final StringBuilder sb = new StringBuilder();
+    sb.append( "[field=" ).append( field );
+    sb.append( ", operator=" ).append( operator );
+
+    if( value != null )
+      sb.append( ", value=" ).append( value );
+
+    sb.append( "]" );
+    return sb.toString();
+    }
+  }
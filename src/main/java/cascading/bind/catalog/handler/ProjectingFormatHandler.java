@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.util.Properties;
+
+import cascading.bind.catalog.Stereotype;
+import cascading.scheme.Scheme;
+import cascading.tuple.Fields;
+
+/**
+ * Interface ProjectingFormatHandler is a {@link FormatHandler} that can create a source {@link Scheme} decoding
+ * only a subset of the fields of a {@link Stereotype}.
+ * <p>
+ * A {@link cascading.bind.process.FlowFactory} passes the stereotype fields referenced by its pipe assembly
+ * and sinks as a projection, when all referenced fields can be determined.
+ */
+public interface ProjectingFormatHandler<Protocol, Format> extends FormatHandler<Protocol, Format>
+  {
+  /**
+   * Method createScheme returns a new Scheme for the given stereotype, where only the given projection, a subset of
+   * the stereotype fields in the same order, is referenced by the reading flow.
+   * <p>
+   * The projection is only a hint. The returned Scheme may decode any fields, but its source fields must include
+   * every field in the projection.
+   *
+   * @param properties
+   * @param stereotype
+   * @param protocol
+   * @param format
+   * @param role
+   * @param projection
+   * @return Scheme
+   */
+  Scheme createScheme( Properties properties, Stereotype<Protocol, Format> stereotype, Protocol protocol, Format format, Role role, Fields projection );
+  }
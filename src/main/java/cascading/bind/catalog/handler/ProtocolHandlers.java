@@ -30,8 +30,11 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 
+import cascading.bind.tap.PrefetchTap;
+import cascading.tap.Tap;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -118,6 +121,38 @@ public class ProtocolHandlers<Protocol, Format> extends AbstractList<ProtocolHan
     return Collections.emptyMap();
     }
 
+  /**
+   * Method decorate returns the given source Tap decorated by a {@link PrefetchTap} if the handlers declare a
+   * {@link PrefetchTap#PREFETCH_SIZE} default property for the given protocol, otherwise the given Tap is returned.
+   * <p>
+   * The declared size may be overridden by setting {@link PrefetchTap#PREFETCH_SIZE}, followed by a period and the
+   * protocol, in the given properties, where a size of 0 disables prefetching.
+   *
+   * @param properties
+   * @param protocol
+   * @param tap
+   * @return Tap
+   */
+  public Tap decorate( Properties properties, Protocol protocol, Tap tap )
+    {
+    String prefetchSize = properties == null ? null : properties.getProperty( PrefetchTap.PREFETCH_SIZE + "." + protocol );
+
+    if( prefetchSize == null )
+      {
+      List<String> values = getProtocolProperties( protocol ).get( PrefetchTap.PREFETCH_SIZE );
+
+      if( values != null && !values.isEmpty() )
+        prefetchSize = values.get( 0 );
+      }
+
+    if( prefetchSize == null || Integer.parseInt( prefetchSize ) == 0 )
+      return tap;
+
+    LOG.debug( "prefetching {} tuples for protocol: {}", prefetchSize, protocol );
+
+    return new PrefetchTap( tap, Integer.parseInt( prefetchSize ) );
+    }
+
   @Override
   public Iterator<ProtocolHandler<Protocol, Format>> iterator()
     {
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Properties;
+
+import cascading.bind.catalog.Resource;
+import cascading.tap.SinkMode;
+
+/**
+ * Interface StreamingProtocolHandler is a {@link ProtocolHandler} that can also read and write the raw bytes of
+ * a resource, without parsing them into tuples.
+ * <p>
+ * A {@link cascading.bind.process.FlowFactory} that only copies a resource into another resource with the same
+ * scheme will stream the bytes between the channels returned here. If both channels are a
+ * {@link java.nio.channels.FileChannel}, the bytes are transferred without being copied into the JVM heap.
+ */
+public interface StreamingProtocolHandler<Protocol, Format> extends ProtocolHandler<Protocol, Format>
+  {
+  ReadableByteChannel openChannelForRead( Properties properties, Resource<Protocol, Format, SinkMode> resource ) throws IOException;
+
+  WritableByteChannel openChannelForWrite( Properties properties, Resource<Protocol, Format, SinkMode> resource ) throws IOException;
+  }
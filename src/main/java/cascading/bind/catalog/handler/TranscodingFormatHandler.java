@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.util.Properties;
+
+import cascading.bind.catalog.Stereotype;
+
+/**
+ * Interface TranscodingFormatHandler is a {@link FormatHandler} that can also provide a {@link FormatTranscoder}
+ * between pairs of the formats it handles.
+ * <p>
+ * A {@link cascading.bind.process.FlowFactory} that only converts a resource from one format into another will
+ * stream the bytes through the transcoder, if both resources are read and written by a
+ * {@link StreamingProtocolHandler}.
+ */
+public interface TranscodingFormatHandler<Protocol, Format> extends FormatHandler<Protocol, Format>
+  {
+  /**
+   * Method createTranscoder returns a new FormatTranscoder producing the same records the Scheme for the
+   * given sink protocol and format would write, when given the records read by the Scheme for the given source
+   * protocol and format.
+   *
+   * @param properties
+   * @param stereotype
+   * @param sourceProtocol
+   * @param sourceFormat
+   * @param sinkProtocol
+   * @param sinkFormat
+   * @return FormatTranscoder, or null if the formats cannot be transcoded
+   */
+  FormatTranscoder createTranscoder( Properties properties, Stereotype<Protocol, Format> stereotype, Protocol sourceProtocol, Format sourceFormat, Protocol sinkProtocol, Format sinkFormat );
+  }
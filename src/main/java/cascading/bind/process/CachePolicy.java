@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.Collection;
+
+import cascading.bind.catalog.Resource;
+
+/**
+ * Interface CachePolicy is used by {@link CascadeFactory} to decide if a {@link Resource} read by more than one
+ * {@link ProcessFactory} should first be copied to a faster location, and to create the copy.
+ *
+ * @see CostBasedCachePolicy
+ */
+public interface CachePolicy
+  {
+  /**
+   * Method isCacheable returns true if the given resource should be copied before being read by the given
+   * dependent process factories.
+   *
+   * @param resource
+   * @param dependencies
+   * @return boolean
+   */
+  boolean isCacheable( Resource resource, Collection<ProcessFactory> dependencies );
+
+  /**
+   * Method createCacheResourceFor returns the Resource the given resource should be copied to, choosing the
+   * protocol and format of the cached copy.
+   *
+   * @param resource
+   * @return Resource
+   */
+  Resource createCacheResourceFor( Resource resource );
+
+  /**
+   * Method createCacheFactoryFor returns a new process factory that copies the given resource to the
+   * given cache resource.
+   *
+   * @param name
+   * @param resource
+   * @param cacheResource
+   * @return ProcessFactory
+   */
+  ProcessFactory createCacheFactoryFor( String name, Resource resource, Resource cacheResource );
+  }
@@ -21,43 +21,90 @@
 
 package cascading.bind.process;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.ResourceManifest;
+import cascading.bind.catalog.ResourceStats;
+import cascading.bind.catalog.ResourceStatsCatalog;
+import cascading.bind.catalog.handler.Role;
 import cascading.bind.factory.Factory;
+import cascading.bind.tap.MemoryBudget;
+import cascading.bind.tap.MemoryTap;
 import cascading.cascade.Cascade;
 import cascading.cascade.CascadeConnector;
 import cascading.cascade.CascadeDef;
+import cascading.cascade.CascadeListener;
 import cascading.flow.Flow;
-import org.jgrapht.graph.SimpleDirectedGraph;
+import cascading.flow.FlowListener;
+import cascading.flow.FlowSkipStrategy;
+import cascading.tap.Tap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
  */
 public class CascadeFactory extends Factory<CascadeDef, Cascade>
   {
+  /**
+   * Property PLANNER_PARALLELISM sets the number of process factories that may be planned concurrently
+   * by {@link #create(CascadeDef)}. The default is 1, planning each factory in turn.
+   * <p>
+   * Only set this if the added process factories do not share mutable state.
+   */
+  public static final String PLANNER_PARALLELISM = "cascading.bind.cascade.planner.parallelism";
+
+  /**
+   * Property INTERMEDIATE_MEMORY_BUDGET sets the estimated number of bytes of all intermediate resources held in
+   * memory when {@link #setMemoryIntermediates(boolean)} is enabled, before spilling to disk. The default is 64MB.
+   */
+  public static final String INTERMEDIATE_MEMORY_BUDGET = "cascading.bind.cascade.intermediate.memory.budget";
+
+  private static final Logger LOG = LoggerFactory.getLogger( CascadeFactory.class );
+
   private final String name;
 
-  private SimpleDirectedGraph<Resource, ProcessFactoryHolder> resourceGraph = null;
+  private ResourceGraph resourceGraph = null;
   private final List<ProcessFactory> processFactories = new ArrayList<ProcessFactory>();
+  private ForkJoinPool plannerPool;
+  private CachePolicy cachePolicy;
+  private boolean incremental = false;
+  private ResourceManifest resourceManifest;
+  private ResourceStatsCatalog resourceStatsCatalog;
+  private DurationEstimator durationEstimator;
+  private boolean fuseFlows = false;
+  private boolean shareScans = false;
+  private boolean pipelined = false;
+  private boolean memoryIntermediates = false;
 
-  public static class ProcessFactoryHolder
+  public static void setPlannerParallelism( Map<Object, Object> properties, int parallelism )
     {
-    ProcessFactory processFactory;
-
-    public ProcessFactoryHolder()
-      {
-      }
+    properties.put( PLANNER_PARALLELISM, Integer.toString( parallelism ) );
+    }
 
-    private ProcessFactoryHolder( ProcessFactory processFactory )
-      {
-      this.processFactory = processFactory;
-      }
+  public static void setIntermediateMemoryBudget( Map<Object, Object> properties, long bytes )
+    {
+    properties.put( INTERMEDIATE_MEMORY_BUDGET, Long.toString( bytes ) );
     }
 
   public CascadeFactory( Properties properties, String name )
@@ -71,99 +118,387 @@ public class CascadeFactory extends Factory<CascadeDef, Cascade>
     return name;
     }
 
+  public ForkJoinPool getPlannerPool()
+    {
+    return plannerPool;
+    }
+
+  /**
+   * Method setPlannerPool sets the pool used to plan process factories concurrently, taking precedence
+   * over the {@link #PLANNER_PARALLELISM} property. The given pool is not shut down by this factory.
+   *
+   * @param plannerPool
+   */
+  public void setPlannerPool( ForkJoinPool plannerPool )
+    {
+    this.plannerPool = plannerPool;
+    }
+
+  public CachePolicy getCachePolicy()
+    {
+    return cachePolicy;
+    }
+
+  /**
+   * Method setCachePolicy sets the {@link CachePolicy} used by {@link #create(CascadeDef)} to cache resources
+   * read by more than one process factory. Cached copies are deleted when the resulting cascade completes.
+   *
+   * @param cachePolicy
+   */
+  public void setCachePolicy( CachePolicy cachePolicy )
+    {
+    this.cachePolicy = cachePolicy;
+    }
+
+  public boolean isIncremental()
+    {
+    return incremental;
+    }
+
+  /**
+   * Method setIncremental enables incremental execution. When enabled, {@link #create(CascadeDef)} will
+   * not plan any process factory whose sink resources are newer than its source resources, unless a factory
+   * upstream of it must run. If every factory is up to date, only the last one is planned, and its flows are
+   * skipped when the cascade runs.
+   *
+   * @param incremental
+   */
+  public void setIncremental( boolean incremental )
+    {
+    this.incremental = incremental;
+    }
+
+  public ResourceManifest getResourceManifest()
+    {
+    return resourceManifest;
+    }
+
+  /**
+   * Method setResourceManifest sets the {@link ResourceManifest} consulted, when running incrementally, for resources
+   * whose Tap does not report a modified time. The manifest is updated and stored after every successful cascade.
+   *
+   * @param resourceManifest
+   */
+  public void setResourceManifest( ResourceManifest resourceManifest )
+    {
+    this.resourceManifest = resourceManifest;
+    }
+
+  public ResourceStatsCatalog getResourceStatsCatalog()
+    {
+    return resourceStatsCatalog;
+    }
+
+  /**
+   * Method setResourceStatsCatalog sets the {@link ResourceStatsCatalog} handed to every planned process factory
+   * that has none set, and to a {@link CostBasedCachePolicy} that has none set.
+   *
+   * @param resourceStatsCatalog
+   */
+  public void setResourceStatsCatalog( ResourceStatsCatalog resourceStatsCatalog )
+    {
+    this.resourceStatsCatalog = resourceStatsCatalog;
+    }
+
+  /**
+   * Method getResourceStats returns the statistics last recorded for the given resource, or null if none were
+   * recorded or no {@link ResourceStatsCatalog} is set.
+   *
+   * @param resource
+   * @return ResourceStats or null
+   */
+  public ResourceStats getResourceStats( Resource resource )
+    {
+    if( resourceStatsCatalog == null )
+      return null;
+
+    return resourceStatsCatalog.getStats( resource );
+    }
+
+  public DurationEstimator getDurationEstimator()
+    {
+    return durationEstimator;
+    }
+
+  /**
+   * Method setDurationEstimator sets the {@link DurationEstimator} used to find the critical path through the
+   * resource graph. When set, every created flow is given a submit priority by how long the longest chain of
+   * dependent flows starting with it is estimated to take, so that flows on the critical path start first.
+   *
+   * @param durationEstimator
+   */
+  public void setDurationEstimator( DurationEstimator durationEstimator )
+    {
+    this.durationEstimator = durationEstimator;
+    }
+
+  public boolean isFuseFlows()
+    {
+    return fuseFlows;
+    }
+
+  /**
+   * Method setFuseFlows enables flow fusion. When enabled, {@link #create(CascadeDef)} will plan a chain of
+   * composable {@link FlowFactory} instances as a single Flow, where each factory in the chain only reads a
+   * resource written by the previous one. Intermediate resources are not written unless read by other factories,
+   * or requested as a target, in which case they are written as a checkpoint.
+   *
+   * @param fuseFlows
+   * @see FlowFactory#createAssembly(Map)
+   */
+  public void setFuseFlows( boolean fuseFlows )
+    {
+    this.fuseFlows = fuseFlows;
+    }
+
+  public boolean isShareScans()
+    {
+    return shareScans;
+    }
+
+  /**
+   * Method setShareScans enables shared scans. When enabled, {@link #create(CascadeDef)} will plan composable
+   * {@link FlowFactory} instances that read the same source resource, and do not depend on each other, as a
+   * single Flow with one tail per factory, so the resource is read once.
+   *
+   * @param shareScans
+   * @see FlowFactory#createAssembly(Map)
+   */
+  public void setShareScans( boolean shareScans )
+    {
+    this.shareScans = shareScans;
+    }
+
+  public boolean isPipelined()
+    {
+    return pipelined;
+    }
+
+  /**
+   * Method setPipelined enables pipelined execution between partitions. When enabled, {@link #create(CascadeDef)}
+   * will create one Flow per partition of every partitionable {@link FlowFactory}, so that a downstream partition
+   * may start as soon as the upstream partition it reads has been written, instead of waiting on every partition.
+   *
+   * @param pipelined
+   * @see FlowFactory#isPartitionable()
+   */
+  public void setPipelined( boolean pipelined )
+    {
+    this.pipelined = pipelined;
+    }
+
+  public boolean isMemoryIntermediates()
+    {
+    return memoryIntermediates;
+    }
+
+  /**
+   * Method setMemoryIntermediates enables in-memory intermediates for Cascading local mode. When enabled,
+   * {@link #create(CascadeDef)} will bind every resource written and read only by local mode {@link FlowFactory}
+   * instances in the cascade, and not requested as a target, to a {@link MemoryTap}. Such resources are not
+   * written to storage, unless they exceed the {@link #INTERMEDIATE_MEMORY_BUDGET}.
+   *
+   * @param memoryIntermediates
+   */
+  public void setMemoryIntermediates( boolean memoryIntermediates )
+    {
+    this.memoryIntermediates = memoryIntermediates;
+    }
+
+  protected long getIntermediateMemoryBudget()
+    {
+    if( getProperties() == null || getProperties().getProperty( INTERMEDIATE_MEMORY_BUDGET ) == null )
+      return 64L * 1024 * 1024;
+
+    return Long.parseLong( getProperties().getProperty( INTERMEDIATE_MEMORY_BUDGET ) );
+    }
+
+  protected int getPlannerParallelism()
+    {
+    if( getProperties() == null || getProperties().getProperty( PLANNER_PARALLELISM ) == null )
+      return 1;
+
+    return Integer.parseInt( getProperties().getProperty( PLANNER_PARALLELISM ) );
+    }
+
   public void addAllProcessFactories( Collection<ProcessFactory<?, ?, Resource>> processFactories )
     {
     for( ProcessFactory<?, ?, Resource> processFactory : processFactories )
       addProcessFactory( processFactory );
     }
 
-  public void addProcessFactory( ProcessFactory<?, ?, Resource> processFactory )
+  public synchronized void addProcessFactory( ProcessFactory<?, ?, Resource> processFactory )
     {
     if( processFactories.contains( processFactory ) )
       throw new IllegalStateException( "may not add identical process factories, received: " + processFactory );
 
+    if( processFactory instanceof CompactionFlowFactory )
+      ( (CompactionFlowFactory) processFactory ).setCascadeFactory( this );
+
     processFactories.add( processFactory );
+
+    if( resourceGraph != null )
+      resourceGraph.insertProcessFactory( processFactory );
     }
 
-  protected Collection<Resource> getAllResources()
+  /**
+   * Method removeProcessFactory removes the given process factory, and any resources only it references,
+   * from this factory and its resource graph.
+   *
+   * @param processFactory
+   * @return true if the process factory was found
+   */
+  public synchronized boolean removeProcessFactory( ProcessFactory<?, ?, Resource> processFactory )
     {
-    initResourceGraph();
+    if( !processFactories.remove( processFactory ) )
+      return false;
 
-    Set<Resource> resources = new HashSet<Resource>();
+    if( processFactory instanceof CompactionFlowFactory && ( (CompactionFlowFactory) processFactory ).getCascadeFactory() == this )
+      ( (CompactionFlowFactory) processFactory ).setCascadeFactory( null );
 
-    resources.addAll( resourceGraph.vertexSet() );
+    if( resourceGraph != null )
+      resourceGraph.removeProcessFactory( processFactory );
 
-    return resources;
+    return true;
     }
 
-  protected Collection<Resource> getResourcesWith( String identifier )
+  /**
+   * Method updateProcessFactory updates the resource graph after the source or sink resources of the given
+   * process factory have been changed directly.
+   * <p>
+   * Only the graph elements belonging to the given process factory are rebuilt.
+   *
+   * @param processFactory
+   */
+  public synchronized void updateProcessFactory( ProcessFactory<?, ?, Resource> processFactory )
     {
-    initResourceGraph();
+    if( !processFactories.contains( processFactory ) )
+      throw new IllegalArgumentException( "process factory has not been added, received: " + processFactory );
+
+    if( resourceGraph == null )
+      return;
 
-    Set<Resource> resources = new HashSet<Resource>();
+    resourceGraph.removeProcessFactory( processFactory );
+    resourceGraph.insertProcessFactory( processFactory );
+    }
 
-    for( Resource resource : resourceGraph.vertexSet() )
-      {
-      if( resource.getIdentifier().equals( identifier ) )
-        resources.add( resource );
-      }
+  /**
+   * Method replaceSourceResource calls {@link ProcessFactory#replaceSourceResource(Object, Object)} on the given
+   * process factory and updates the resource graph accordingly.
+   *
+   * @param processFactory
+   * @param from
+   * @param to
+   * @return true if the from resource was found
+   */
+  public synchronized boolean replaceSourceResource( ProcessFactory<?, ?, Resource> processFactory, Resource from, Resource to )
+    {
+    boolean found = processFactory.replaceSourceResource( from, to );
+
+    if( found )
+      updateProcessFactory( processFactory );
 
-    return resources;
+    return found;
     }
 
-  protected Collection<ProcessFactory> getSourceDependenciesOn( Resource sourceResource )
+  /**
+   * Method replaceSourceResources calls {@link ProcessFactory#replaceSourceResources(Collection, Collection)} on the
+   * given process factory and updates the resource graph accordingly.
+   * <p>
+   * This method may be called by a running flow, for example by a {@link CompactionFlowFactory}. The bindings and the
+   * resource graph are updated while holding this factory's lock, which every method reading the graph also holds.
+   *
+   * @param processFactory
+   * @param from
+   * @param to
+   * @return true if any binding was replaced
+   */
+  public synchronized boolean replaceSourceResources( ProcessFactory<?, ?, Resource> processFactory, Collection<Resource> from, Collection<Resource> to )
     {
-    initResourceGraph();
+    boolean found = processFactory.replaceSourceResources( from, to );
+
+    if( found )
+      updateProcessFactory( processFactory );
 
-    Set<ProcessFactory> factories = new HashSet<ProcessFactory>();
-    Set<ProcessFactoryHolder> outgoing = resourceGraph.outgoingEdgesOf( sourceResource );
+    return found;
+    }
+
+  /**
+   * Method replaceSinkResource calls {@link ProcessFactory#replaceSinkResource(Object, Object)} on the given
+   * process factory and updates the resource graph accordingly.
+   *
+   * @param processFactory
+   * @param from
+   * @param to
+   * @return true if the from resource was found
+   */
+  public synchronized boolean replaceSinkResource( ProcessFactory<?, ?, Resource> processFactory, Resource from, Resource to )
+    {
+    boolean found = processFactory.replaceSinkResource( from, to );
 
-    for( ProcessFactoryHolder processFactoryHolder : outgoing )
-      factories.add( processFactoryHolder.processFactory );
+    if( found )
+      updateProcessFactory( processFactory );
 
-    return factories;
+    return found;
     }
 
-  protected Collection<ProcessFactory> getSinkDependenciesOn( Resource sourceResource )
+  protected synchronized Collection<Resource> getAllResources()
     {
     initResourceGraph();
 
-    Set<ProcessFactory> factories = new HashSet<ProcessFactory>();
-    Set<ProcessFactoryHolder> incoming = resourceGraph.incomingEdgesOf( sourceResource );
+    return resourceGraph.getAllResources();
+    }
 
-    for( ProcessFactoryHolder processFactoryHolder : incoming )
-      factories.add( processFactoryHolder.processFactory );
+  /**
+   * Method getResourcesWith returns all Resource instances in the resource graph with the given identifier.
+   *
+   * @param identifier
+   * @return Collection of Resource instances
+   */
+  protected synchronized Collection<Resource> getResourcesWith( String identifier )
+    {
+    initResourceGraph();
 
-    return factories;
+    return resourceGraph.getResourcesWith( identifier );
     }
 
-  protected void initResourceGraph()
+  /**
+   * Method getResourcesUnder returns all Resource instances in the resource graph whose identifier
+   * starts with the given prefix, for example every resource under {@code /warehouse/events/}.
+   *
+   * @param prefix
+   * @return Collection of Resource instances
+   */
+  protected synchronized Collection<Resource> getResourcesUnder( String prefix )
     {
-    if( resourceGraph == null )
-      rebuildResourceGraph();
+    initResourceGraph();
+
+    return resourceGraph.getResourcesUnder( prefix );
     }
 
-  protected void rebuildResourceGraph()
+  protected synchronized Collection<ProcessFactory> getSourceDependenciesOn( Resource sourceResource )
     {
-    resourceGraph = new SimpleDirectedGraph<Resource, ProcessFactoryHolder>( ProcessFactoryHolder.class );
+    initResourceGraph();
 
-    for( ProcessFactory processFactory : processFactories )
-      insertProcessFactory( processFactory );
+    return resourceGraph.getSourceDependenciesOn( sourceResource );
     }
 
-  private void insertProcessFactory( ProcessFactory<?, ?, Resource> processFactory )
+  protected synchronized Collection<ProcessFactory> getSinkDependenciesOn( Resource sourceResource )
     {
-    for( Resource resource : processFactory.getAllSourceResources() )
-      resourceGraph.addVertex( resource );
+    initResourceGraph();
 
-    for( Resource resource : processFactory.getAllSinkResources() )
-      resourceGraph.addVertex( resource );
+    return resourceGraph.getSinkDependenciesOn( sourceResource );
+    }
 
-    for( Resource incoming : processFactory.getAllSourceResources() )
-      {
-      for( Resource outgoing : processFactory.getAllSinkResources() )
-        resourceGraph.addEdge( incoming, outgoing, new ProcessFactoryHolder( processFactory ) );
-      }
+  protected synchronized void initResourceGraph()
+    {
+    if( resourceGraph == null )
+      rebuildResourceGraph();
+    }
+
+  protected synchronized void rebuildResourceGraph()
+    {
+    resourceGraph = new ResourceGraph( processFactories );
     }
 
   protected CascadeConnector getCascadeConnector()
@@ -180,28 +515,1194 @@ public class CascadeFactory extends Factory<CascadeDef, Cascade>
   @Override
   public Cascade create( CascadeDef cascadeDef )
     {
-    List<Flow> flows = new ArrayList<Flow>();
+    return create( cascadeDef, null );
+    }
 
-    for( ProcessFactory processFactory : processFactories )
+  /**
+   * Method create returns a new {@link Cascade} containing only the flows of the process factories needed to
+   * produce the given target resources, walking the resource graph backwards from the targets.
+   *
+   * @param targets the sink resources to produce
+   * @return Cascade
+   */
+  public Cascade create( Collection<Resource> targets )
+    {
+    return create( CascadeDef.cascadeDef().setName( getName() ), targets );
+    }
+
+  /**
+   * Method create returns a new {@link Cascade} containing only the flows of the process factories needed to
+   * produce the given target resources. If targets is null, the flows of all process factories are included.
+   *
+   * @param cascadeDef
+   * @param targets    the sink resources to produce, or null
+   * @return Cascade
+   */
+  public synchronized Cascade create( CascadeDef cascadeDef, Collection<Resource> targets )
+    {
+    List<ProcessFactory> selected = targets == null ? new ArrayList<ProcessFactory>( processFactories ) : findProducersOf( targets );
+    Set<ProcessFactory> upToDate = isIncremental() ? findUpToDate( selected ) : Collections.<ProcessFactory>emptySet();
+
+    List<CachedResource> cachedResources = applyCachePolicy( selected, upToDate );
+
+    try
+      {
+      return connectCascade( cascadeDef, targets, selected, upToDate, cachedResources );
+      }
+    finally
+      {
+      revertCachePolicy( cachedResources );
+      }
+    }
+
+  private Cascade connectCascade( CascadeDef cascadeDef, Collection<Resource> targets, List<ProcessFactory> selected, Set<ProcessFactory> upToDate, List<CachedResource> cachedResources )
+    {
+    Set<ProcessFactory> cacheFactories = new LinkedHashSet<ProcessFactory>();
+
+    for( CachedResource cachedResource : cachedResources )
+      cacheFactories.add( cachedResource.getCacheFactory() );
+
+    List<ProcessFactory> planned = selected;
+    Set<ProcessFactory> excluded = new HashSet<ProcessFactory>( cacheFactories );
+
+    excluded.addAll( upToDate );
+
+    Map<Resource, List<FlowFactory>> boundTaps = Collections.emptyMap();
+
+    if( isMemoryIntermediates() )
+      boundTaps = bindMemoryIntermediates( selected, excluded, targets );
+
+    if( isFuseFlows() || isShareScans() )
+      planned = applyComposition( planned, excluded, targets );
+
+    if( isPipelined() )
+      planned = applyPartitioning( planned, excluded );
+
+    // a cascade needs at least one flow, so the last factory is planned and skipped if all are up to date
+    if( !upToDate.isEmpty() && !planned.isEmpty() )
+      {
+      List<ProcessFactory> outOfDate = new ArrayList<ProcessFactory>( planned );
+
+      outOfDate.removeAll( upToDate );
+
+      if( outOfDate.isEmpty() )
+        outOfDate.add( planned.get( planned.size() - 1 ) );
+
+      planned = outOfDate;
+      }
+
+    if( getResourceStatsCatalog() != null )
+      {
+      for( ProcessFactory processFactory : planned )
+        {
+        if( processFactory.getResourceStatsCatalog() == null )
+          processFactory.setResourceStatsCatalog( getResourceStatsCatalog() );
+        }
+      }
+
+    Map<ProcessFactory, List<Flow>> createdFlows;
+    Set<MemoryTap> memoryTaps = new LinkedHashSet<MemoryTap>();
+
+    try
       {
-      Object o = processFactory.create();
+      createdFlows = createFlows( planned );
+      }
+    finally
+      {
+      for( Map.Entry<Resource, List<FlowFactory>> entry : boundTaps.entrySet() )
+        {
+        for( FlowFactory flowFactory : entry.getValue() )
+          memoryTaps.add( (MemoryTap) flowFactory.unbindTap( entry.getKey() ) );
+        }
+      }
+
+    for( MemoryTap memoryTap : memoryTaps )
+      addMemoryReleaseListener( memoryTap, createdFlows );
 
-      if( o == null )
-        throw new IllegalStateException( "factory returned null: " + processFactory );
+    for( Map.Entry<ProcessFactory, List<Flow>> entry : createdFlows.entrySet() )
+      {
+      if( !upToDate.contains( entry.getKey() ) )
+        continue;
 
-      if( o instanceof Flow )
-        flows.add( (Flow) o );
-      else if( o instanceof Cascade )
-        flows.addAll( ( (Cascade) o ).getFlows() );
-      else
-        throw new IllegalStateException( "process type not supported: " + o.getClass().getName() + ", returned by: " + processFactory );
+      for( Flow flow : entry.getValue() )
+        flow.setFlowSkipStrategy( new UpToDateSkipStrategy() );
       }
 
+    List<Flow> flows = new ArrayList<Flow>();
+
+    for( List<Flow> current : createdFlows.values() )
+      flows.addAll( current );
+
+    if( durationEstimator != null )
+      applyCriticalPathPriorities( createdFlows, flows );
+
     if( flows.isEmpty() )
       throw new IllegalStateException( "now flows were created from the given process factories" );
 
     cascadeDef.addFlows( flows );
 
-    return getCascadeConnector().connect( cascadeDef );
+    Cascade cascade = getCascadeConnector().connect( cascadeDef );
+
+    List<Flow> cacheFlows = new ArrayList<Flow>();
+
+    for( ProcessFactory cacheFactory : cacheFactories )
+      cacheFlows.addAll( createdFlows.get( cacheFactory ) );
+
+    if( !cacheFlows.isEmpty() )
+      cascade.addListener( new CacheCleanupListener( cacheFlows ) );
+
+    if( isIncremental() && resourceManifest != null )
+      {
+      List<ProcessFactory> executed = new ArrayList<ProcessFactory>( selected );
+
+      executed.removeAll( upToDate );
+      executed.removeAll( cacheFactories );
+
+      cascade.addListener( new ManifestListener( resourceManifest, executed ) );
+      }
+
+    if( durationEstimator instanceof CascadeListener )
+      cascade.addListener( (CascadeListener) durationEstimator );
+
+    return cascade;
+    }
+
+  /**
+   * Method applyCriticalPathPriorities sets the submit priority of every given flow, where 1 is the highest and
+   * 10 the lowest, by the estimated duration of the longest path of dependent process factories starting with
+   * the factory that created it. The given flows list is then sorted by priority.
+   *
+   * @param createdFlows
+   * @param flows
+   */
+  protected void applyCriticalPathPriorities( Map<ProcessFactory, List<Flow>> createdFlows, List<Flow> flows )
+    {
+    ResourceGraph resourceGraph = new ResourceGraph( createdFlows.keySet() );
+    Map<ProcessFactory, Long> pathDurations = new HashMap<ProcessFactory, Long>();
+    List<ProcessFactory> order = resourceGraph.getTopologicalOrder();
+
+    Collections.reverse( order );
+
+    long longest = 0;
+
+    for( ProcessFactory processFactory : order )
+      {
+      if( !createdFlows.containsKey( processFactory ) )
+        continue;
+
+      long downstream = 0;
+
+      for( ProcessFactory next : resourceGraph.getDownstreamOf( processFactory ) )
+        {
+        Long duration = pathDurations.get( next );
+
+        if( duration != null )
+          downstream = Math.max( downstream, duration );
+        }
+
+      long duration = Math.max( 0, durationEstimator.getEstimatedDuration( processFactory, createdFlows.get( processFactory ) ) ) + downstream;
+
+      pathDurations.put( processFactory, duration );
+      longest = Math.max( longest, duration );
+      }
+
+    final Map<Flow, Integer> priorities = new HashMap<Flow, Integer>();
+
+    for( Map.Entry<ProcessFactory, List<Flow>> entry : createdFlows.entrySet() )
+      {
+      Long duration = pathDurations.get( entry.getKey() );
+      int priority = longest == 0 || duration == null ? 5 : 1 + (int) ( 9 * ( longest - duration ) / longest );
+
+      for( Flow flow : entry.getValue() )
+        {
+        flow.setSubmitPriority( priority );
+        priorities.put( flow, priority );
+        }
+      }
+
+    Collections.sort( flows, new Comparator<Flow>()
+    {
+    @Override
+    public int compare( Flow lhs, Flow rhs )
+      {
+      return priorities.get( lhs ).compareTo( priorities.get( rhs ) );
+      }
+    } );
+    }
+
+  /**
+   * Method applyComposition returns the given process factories, with every group of composable factories replaced
+   * by a single {@link CompositeFlowFactory}, according to {@link #isFuseFlows()} and {@link #isShareScans()}.
+   * <p>
+   * A factory is fused with the factory writing its only source resource if both are composable {@link FlowFactory}
+   * instances using the same FlowConnector type, the resource is bound to a single name by both, and no other factory
+   * writes it. Fused resources read by any factory outside of the group, or found in the given targets, are kept
+   * as a checkpoint.
+   * <p>
+   * Factories reading the same source resource are merged if they meet the same requirements, and neither
+   * depends on the other, so that the resource is read once for all of them.
+   *
+   * @param processFactories
+   * @param excluded         factories that may not be composed
+   * @param targets          the requested target resources, or null
+   * @return List of ProcessFactory instances
+   */
+  protected List<ProcessFactory> applyComposition( List<ProcessFactory> processFactories, Set<ProcessFactory> excluded, Collection<Resource> targets )
+    {
+    initResourceGraph();
+
+    Set<ProcessFactory> scope = new HashSet<ProcessFactory>( processFactories );
+
+    scope.removeAll( excluded );
+
+    Map<ProcessFactory, List<FlowFactory>> groups = new HashMap<ProcessFactory, List<FlowFactory>>();
+    Set<Resource> fused = new HashSet<Resource>();
+
+    if( isFuseFlows() )
+      fuseChains( scope, groups, fused );
+
+    if( isShareScans() )
+      shareScans( processFactories, scope, groups );
+
+    if( groups.isEmpty() )
+      return processFactories;
+
+    final List<ProcessFactory> order = resourceGraph.getTopologicalOrder();
+    Comparator<FlowFactory> comparator = new Comparator<FlowFactory>()
+    {
+    @Override
+    public int compare( FlowFactory lhs, FlowFactory rhs )
+      {
+      return Integer.compare( order.indexOf( lhs ), order.indexOf( rhs ) );
+      }
+    };
+
+    Map<List<FlowFactory>, CompositeFlowFactory> composites = new IdentityHashMap<List<FlowFactory>, CompositeFlowFactory>();
+    List<ProcessFactory> results = new ArrayList<ProcessFactory>();
+
+    for( ProcessFactory processFactory : processFactories )
+      {
+      List<FlowFactory> group = groups.get( processFactory );
+
+      if( group == null )
+        {
+        results.add( processFactory );
+        continue;
+        }
+
+      if( composites.containsKey( group ) )
+        continue;
+
+      Collections.sort( group, comparator );
+
+      Set<Resource> checkpoints = new HashSet<Resource>();
+
+      for( Resource resource : fused )
+        {
+        if( !group.containsAll( resourceGraph.getSinkDependenciesOn( resource ) ) )
+          continue;
+
+        if( ( targets != null && targets.contains( resource ) ) || !group.containsAll( resourceGraph.getSourceDependenciesOn( resource ) ) )
+          checkpoints.add( resource );
+        }
+
+      CompositeFlowFactory composite = new CompositeFlowFactory( group, fused, checkpoints );
+
+      LOG.info( "composed process factories: {}", composite.getName() );
+
+      composites.put( group, composite );
+      results.add( composite );
+      }
+
+    return results;
+    }
+
+  private void fuseChains( Set<ProcessFactory> scope, Map<ProcessFactory, List<FlowFactory>> groups, Set<Resource> fused )
+    {
+    for( ProcessFactory consumer : resourceGraph.getTopologicalOrder() )
+      {
+      if( !scope.contains( consumer ) )
+        continue;
+
+      Resource resource = getFusableSourceOf( consumer );
+
+      if( resource == null )
+        continue;
+
+      Set<ProcessFactory> producers = resourceGraph.getSinkDependenciesOn( resource );
+
+      if( producers.size() != 1 )
+        continue;
+
+      ProcessFactory producer = producers.iterator().next();
+
+      if( !scope.contains( producer ) || !isFusable( producer, resource ) || !isComposable( producer, consumer ) )
+        continue;
+
+      List<FlowFactory> group = getGroupFor( groups, producer );
+
+      if( !hasDistinctNames( group, Collections.singletonList( (FlowFactory) consumer ) ) )
+        continue;
+
+      group.add( (FlowFactory) consumer );
+      groups.put( producer, group );
+      groups.put( consumer, group );
+      fused.add( resource );
+      }
+    }
+
+  private void shareScans( List<ProcessFactory> processFactories, Set<ProcessFactory> scope, Map<ProcessFactory, List<FlowFactory>> groups )
+    {
+    Set<Resource> sources = new HashSet<Resource>();
+
+    for( ProcessFactory<?, ?, Resource> processFactory : processFactories )
+      sources.addAll( processFactory.getAllSourceResources() );
+
+    List<Resource> resources = new ArrayList<Resource>( sources );
+
+    Collections.sort( resources, new Comparator<Resource>()
+    {
+    @Override
+    public int compare( Resource lhs, Resource rhs )
+      {
+      return lhs.toString().compareTo( rhs.toString() );
+      }
+    } );
+
+    for( Resource resource : resources )
+      {
+      Set<ProcessFactory> consumers = resourceGraph.getSourceDependenciesOn( resource );
+      List<FlowFactory> base = null;
+
+      for( ProcessFactory consumer : processFactories )
+        {
+        if( !consumers.contains( consumer ) || !scope.contains( consumer ) || !isSoleBinding( consumer.sourceResources, resource ) )
+          continue;
+
+        if( base == null )
+          {
+          if( isComposable( consumer, consumer ) )
+            base = getGroupFor( groups, consumer );
+
+          continue;
+          }
+
+        List<FlowFactory> group = getGroupFor( groups, consumer );
+
+        if( group == base || !isComposable( base.get( 0 ), group.get( 0 ) ) || !hasDistinctNames( base, group ) )
+          continue;
+
+        if( isReachable( base, group ) || isReachable( group, base ) )
+          continue;
+
+        base.addAll( group );
+
+        for( FlowFactory member : base )
+          groups.put( member, base );
+        }
+      }
+    }
+
+  private static List<FlowFactory> getGroupFor( Map<ProcessFactory, List<FlowFactory>> groups, ProcessFactory processFactory )
+    {
+    List<FlowFactory> group = groups.get( processFactory );
+
+    if( group == null )
+      {
+      group = new ArrayList<FlowFactory>();
+      group.add( (FlowFactory) processFactory );
+      }
+
+    return group;
+    }
+
+  private boolean isReachable( List<FlowFactory> from, List<FlowFactory> to )
+    {
+    Set<ProcessFactory> visited = new HashSet<ProcessFactory>();
+    LinkedList<ProcessFactory> queue = new LinkedList<ProcessFactory>( from );
+
+    while( !queue.isEmpty() )
+      {
+      ProcessFactory processFactory = queue.removeFirst();
+
+      if( !visited.add( processFactory ) )
+        continue;
+
+      if( to.contains( processFactory ) )
+        return true;
+
+      queue.addAll( resourceGraph.getDownstreamOf( processFactory ) );
+      }
+
+    return false;
+    }
+
+  private static Resource getFusableSourceOf( ProcessFactory<?, ?, Resource> consumer )
+    {
+    if( consumer.getSourceNames().size() != 1 )
+      return null;
+
+    List<Resource> resources = consumer.getSourceResources( consumer.getSourceNames().iterator().next() );
+
+    return resources.size() == 1 ? resources.get( 0 ) : null;
+    }
+
+  private static boolean isFusable( ProcessFactory<?, ?, Resource> producer, Resource resource )
+    {
+    return isSoleBinding( producer.sinkResources, resource );
+    }
+
+  /** Returns true if the given resource is bound to exactly one name, and is the only resource bound to it. */
+  private static boolean isSoleBinding( Map<String, List<Resource>> bindings, Resource resource )
+    {
+    int count = 0;
+
+    for( List<Resource> resources : bindings.values() )
+      {
+      if( !resources.contains( resource ) )
+        continue;
+
+      if( resources.size() != 1 )
+        return false;
+
+      count++;
+      }
+
+    return count == 1;
+    }
+
+  private static boolean isComposable( ProcessFactory lhs, ProcessFactory rhs )
+    {
+    if( !( lhs instanceof FlowFactory ) || !( rhs instanceof FlowFactory ) )
+      return false;
+
+    FlowFactory lhsFactory = (FlowFactory) lhs;
+    FlowFactory rhsFactory = (FlowFactory) rhs;
+
+    if( !lhsFactory.isComposable() || !rhsFactory.isComposable() )
+      return false;
+
+    return lhsFactory.getFlowConnector().getClass() == rhsFactory.getFlowConnector().getClass();
+    }
+
+  private static boolean hasDistinctNames( List<FlowFactory> lhs, List<FlowFactory> rhs )
+    {
+    Set<String> names = new HashSet<String>();
+
+    for( FlowFactory member : lhs )
+      {
+      names.addAll( member.getSourceNames() );
+      names.addAll( member.getSinkNames() );
+      }
+
+    for( FlowFactory member : rhs )
+      {
+      for( Object name : member.getSourceNames() )
+        {
+        if( names.contains( name ) )
+          return false;
+        }
+
+      for( Object name : member.getSinkNames() )
+        {
+        if( names.contains( name ) )
+          return false;
+        }
+      }
+
+    return true;
+    }
+
+  /**
+   * Method bindMemoryIntermediates binds a {@link MemoryTap} to every resource written by exactly one of the given
+   * process factories and read only by the given process factories, where all of them are Cascading local mode
+   * {@link FlowFactory} instances, and the resource is not one of the given targets.
+   * <p>
+   * The same MemoryTap instance is bound in the writing and reading factories. The caller must unbind them once the
+   * flows are planned. Every MemoryTap bound by a single call shares one {@link MemoryBudget} of
+   * {@link #INTERMEDIATE_MEMORY_BUDGET} bytes.
+   *
+   * @param processFactories
+   * @param excluded         factories that may not read or write an intermediate in memory
+   * @param targets          the requested target resources, or null
+   * @return Map of every bound resource to the factories it was bound in
+   */
+  protected Map<Resource, List<FlowFactory>> bindMemoryIntermediates( List<ProcessFactory> processFactories, Set<ProcessFactory> excluded, Collection<Resource> targets )
+    {
+    initResourceGraph();
+
+    Set<ProcessFactory> scope = new HashSet<ProcessFactory>( processFactories );
+    Map<Resource, List<FlowFactory>> bound = new LinkedHashMap<Resource, List<FlowFactory>>();
+    File spillDirectory = new File( System.getProperty( "java.io.tmpdir" ) );
+    MemoryBudget memoryBudget = new MemoryBudget( getIntermediateMemoryBudget() );
+
+    for( ProcessFactory<?, ?, Resource> producer : processFactories )
+      {
+      for( Resource resource : producer.getAllSinkResources() )
+        {
+        if( targets != null && targets.contains( resource ) )
+          continue;
+
+        if( resourceGraph.getSinkDependenciesOn( resource ).size() != 1 || resourceGraph.getSourceDependenciesOn( resource ).isEmpty() )
+          continue;
+
+        List<FlowFactory> factories = new ArrayList<FlowFactory>();
+        Set<ProcessFactory> dependencies = new LinkedHashSet<ProcessFactory>();
+
+        dependencies.add( producer );
+        dependencies.addAll( resourceGraph.getSourceDependenciesOn( resource ) );
+
+        for( ProcessFactory dependency : dependencies )
+          {
+          if( !scope.contains( dependency ) || excluded.contains( dependency ) || !isLocal( dependency ) )
+            break;
+
+          factories.add( (FlowFactory) dependency );
+          }
+
+        if( factories.size() != dependencies.size() )
+          continue;
+
+        Tap tap = ( (FlowFactory) producer ).createTapFor( resource, Role.sink );
+        MemoryTap memoryTap = new MemoryTap( tap, memoryBudget, spillDirectory );
+
+        for( FlowFactory flowFactory : factories )
+          flowFactory.bindTap( resource, memoryTap );
+
+        LOG.info( "binding intermediate resource to memory: {}", resource );
+
+        bound.put( resource, factories );
+        }
+      }
+
+    return bound;
+    }
+
+  /**
+   * Method addMemoryReleaseListener adds a listener to every created flow reading the given {@link MemoryTap}, that
+   * deletes the resource, freeing its memory and spill file, once all of them have completed.
+   *
+   * @param memoryTap
+   * @param createdFlows
+   */
+  protected void addMemoryReleaseListener( MemoryTap memoryTap, Map<ProcessFactory, List<Flow>> createdFlows )
+    {
+    List<Flow> consumers = new ArrayList<Flow>();
+
+    for( List<Flow> flows : createdFlows.values() )
+      {
+      for( Flow flow : flows )
+        {
+        for( Object source : flow.getSourcesCollection() )
+          {
+          if( source == memoryTap )
+            {
+            consumers.add( flow );
+            break;
+            }
+          }
+        }
+      }
+
+    MemoryReleaseListener listener = new MemoryReleaseListener( memoryTap, consumers.size() );
+
+    for( Flow flow : consumers )
+      flow.addListener( listener );
+    }
+
+  private static boolean isLocal( ProcessFactory processFactory )
+    {
+    return processFactory instanceof FlowFactory && ( (FlowFactory) processFactory ).isLocal();
+    }
+
+  /**
+   * Method applyPartitioning returns the given process factories, with every partitionable {@link FlowFactory}
+   * replaced by one factory per partition of its resources.
+   *
+   * @param processFactories
+   * @param excluded         factories that may not be partitioned
+   * @return List of ProcessFactory instances
+   * @see FlowFactory#createPartitionFactory(int)
+   */
+  protected List<ProcessFactory> applyPartitioning( List<ProcessFactory> processFactories, Set<ProcessFactory> excluded )
+    {
+    List<ProcessFactory> results = new ArrayList<ProcessFactory>();
+
+    for( ProcessFactory processFactory : processFactories )
+      {
+      int partitions = processFactory instanceof FlowFactory ? ( (FlowFactory) processFactory ).getNumPartitions() : 1;
+
+      if( partitions == 1 || excluded.contains( processFactory ) )
+        {
+        results.add( processFactory );
+        continue;
+        }
+
+      LOG.info( "partitioning process factory: {}, into: {} partitions", ( (FlowFactory) processFactory ).getName(), partitions );
+
+      for( int i = 0; i < partitions; i++ )
+        results.add( ( (FlowFactory) processFactory ).createPartitionFactory( i ) );
+      }
+
+    return results;
+    }
+
+  /**
+   * Method findProducersOf returns, in the order they were added, every process factory that directly or
+   * transitively writes one of the given target resources.
+   *
+   * @param targets
+   * @return List of ProcessFactory instances
+   */
+  protected synchronized List<ProcessFactory> findProducersOf( Collection<Resource> targets )
+    {
+    initResourceGraph();
+
+    Set<ProcessFactory> producers = new HashSet<ProcessFactory>();
+    Set<Resource> visited = new HashSet<Resource>();
+    LinkedList<Resource> queue = new LinkedList<Resource>();
+
+    for( Resource target : targets )
+      {
+      if( !resourceGraph.containsResource( target ) )
+        throw new IllegalArgumentException( "target resource not found: " + target );
+
+      queue.add( target );
+      }
+
+    while( !queue.isEmpty() )
+      {
+      Resource resource = queue.removeFirst();
+
+      if( !visited.add( resource ) )
+        continue;
+
+      for( ProcessFactory<?, ?, Resource> producer : resourceGraph.getSinkDependenciesOn( resource ) )
+        {
+        if( producers.add( producer ) )
+          queue.addAll( producer.getAllSourceResources() );
+        }
+      }
+
+    List<ProcessFactory> ordered = new ArrayList<ProcessFactory>();
+
+    for( ProcessFactory processFactory : processFactories )
+      {
+      if( producers.contains( processFactory ) )
+        ordered.add( processFactory );
+      }
+
+    return ordered;
+    }
+
+  /**
+   * Method findUpToDate returns every process factory whose sink resources all exist and are newer than all
+   * of its source resources, and where no process factory writing one of its source resources is out of date.
+   * <p>
+   * A resource whose modified time cannot be determined is looked up in the current {@link ResourceManifest}.
+   * If still unknown, the factories reading or writing it are considered out of date.
+   *
+   * @return Set of up to date ProcessFactory instances
+   */
+  protected synchronized Set<ProcessFactory> findUpToDate()
+    {
+    return findUpToDate( processFactories );
+    }
+
+  /**
+   * Method findUpToDate returns the up to date process factories among the given process factories.
+   * The given factories must include every factory upstream of them.
+   *
+   * @param processFactories
+   * @return Set of up to date ProcessFactory instances
+   * @see #findUpToDate()
+   */
+  protected synchronized Set<ProcessFactory> findUpToDate( Collection<ProcessFactory> processFactories )
+    {
+    initResourceGraph();
+
+    Set<ProcessFactory> scope = new HashSet<ProcessFactory>( processFactories );
+    Set<ProcessFactory> upToDate = new HashSet<ProcessFactory>();
+    Map<Resource, Long> modifiedTimes = new HashMap<Resource, Long>();
+
+    for( ProcessFactory<?, ?, Resource> processFactory : resourceGraph.getTopologicalOrder() )
+      {
+      if( scope.contains( processFactory ) && isUpToDate( processFactory, upToDate, modifiedTimes ) )
+        upToDate.add( processFactory );
+      }
+
+    return upToDate;
+    }
+
+  private boolean isUpToDate( ProcessFactory<?, ?, Resource> processFactory, Set<ProcessFactory> upToDate, Map<Resource, Long> modifiedTimes )
+    {
+    if( processFactory.getAllSinkResources().isEmpty() )
+      return false;
+
+    long oldestSink = Long.MAX_VALUE;
+
+    for( Resource sink : processFactory.getAllSinkResources() )
+      {
+      long modifiedTime = getModifiedTime( processFactory, sink, modifiedTimes );
+
+      if( modifiedTime <= 0 )
+        return false;
+
+      oldestSink = Math.min( oldestSink, modifiedTime );
+      }
+
+    for( Resource source : processFactory.getAllSourceResources() )
+      {
+      for( ProcessFactory producer : resourceGraph.getSinkDependenciesOn( source ) )
+        {
+        if( !upToDate.contains( producer ) )
+          return false;
+        }
+
+      long modifiedTime = getModifiedTime( processFactory, source, modifiedTimes );
+
+      if( modifiedTime <= 0 || modifiedTime > oldestSink )
+        return false;
+      }
+
+    return true;
+    }
+
+  private long getModifiedTime( ProcessFactory<?, ?, Resource> processFactory, Resource resource, Map<Resource, Long> modifiedTimes )
+    {
+    Long modifiedTime = modifiedTimes.get( resource );
+
+    if( modifiedTime != null )
+      return modifiedTime;
+
+    modifiedTime = processFactory.getModifiedTime( resource );
+
+    if( modifiedTime < 0 && resourceManifest != null )
+      modifiedTime = resourceManifest.getModifiedTime( resource );
+
+    modifiedTimes.put( resource, modifiedTime );
+
+    return modifiedTime;
+    }
+
+  /**
+   * Method applyCachePolicy inserts a copy process factory, created by the current {@link CachePolicy}, for every
+   * resource read by the given process factories that the policy chooses to cache, and re-binds every dependent
+   * process factory in the given list to the cached copy. Excluded process factories, such as those already up to
+   * date, are neither counted as dependents nor re-bound.
+   * <p>
+   * Inserted process factories are added to this factory and to the given list, until reverted by
+   * {@link #revertCachePolicy(List)}.
+   *
+   * @param processFactories
+   * @param excluded
+   * @return List of the cached resources, in the order they were inserted
+   */
+  protected List<CachedResource> applyCachePolicy( List<ProcessFactory> processFactories, Set<ProcessFactory> excluded )
+    {
+    List<CachedResource> cachedResources = new ArrayList<CachedResource>();
+
+    if( cachePolicy == null )
+      return cachedResources;
+
+    if( cachePolicy instanceof CostBasedCachePolicy && ( (CostBasedCachePolicy) cachePolicy ).getResourceStatsCatalog() == null )
+      ( (CostBasedCachePolicy) cachePolicy ).setResourceStatsCatalog( getResourceStatsCatalog() );
+
+    Set<Resource> sources = new HashSet<Resource>();
+
+    for( ProcessFactory<?, ?, Resource> processFactory : processFactories )
+      sources.addAll( processFactory.getAllSourceResources() );
+
+    List<Resource> resources = new ArrayList<Resource>( sources );
+
+    Collections.sort( resources, new Comparator<Resource>()
+    {
+    @Override
+    public int compare( Resource lhs, Resource rhs )
+      {
+      return lhs.toString().compareTo( rhs.toString() );
+      }
+    } );
+
+    for( Resource resource : resources )
+      {
+      Collection<ProcessFactory> dependencies = getSourceDependenciesOn( resource );
+
+      dependencies.retainAll( processFactories );
+      dependencies.removeAll( excluded );
+
+      if( dependencies.size() < 2 || !cachePolicy.isCacheable( resource, dependencies ) )
+        continue;
+
+      Resource cacheResource = cachePolicy.createCacheResourceFor( resource );
+
+      if( cacheResource == null || cacheResource.equals( resource ) )
+        continue;
+
+      ProcessFactory cacheFactory = cachePolicy.createCacheFactoryFor( getName() + "-cache-" + resource.getIdentifier(), resource, cacheResource );
+
+      if( cacheFactory == null )
+        continue;
+
+      for( ProcessFactory dependency : dependencies )
+        replaceSourceResource( dependency, resource, cacheResource );
+
+      addProcessFactory( cacheFactory );
+      processFactories.add( cacheFactory );
+      cachedResources.add( new CachedResource( cacheFactory, resource, cacheResource, dependencies ) );
+      }
+
+    return cachedResources;
+    }
+
+  /**
+   * Method revertCachePolicy re-binds every dependent process factory of the given cached resources back to the
+   * original resource, and removes the inserted copy process factories, so that the next call to create starts
+   * from the process factories as they were added.
+   *
+   * @param cachedResources
+   */
+  protected void revertCachePolicy( List<CachedResource> cachedResources )
+    {
+    for( CachedResource cachedResource : cachedResources )
+      {
+      for( ProcessFactory dependency : cachedResource.getDependencies() )
+        replaceSourceResource( dependency, cachedResource.getCacheResource(), cachedResource.getResource() );
+
+      removeProcessFactory( cachedResource.getCacheFactory() );
+      }
+    }
+
+  /**
+   * Method createFlows calls {@link ProcessFactory#create()} on every given process factory and returns
+   * all resulting {@link Flow} instances keyed by their factory, in the order of the given factories.
+   * <p>
+   * If a planner pool has been set, or the {@link #PLANNER_PARALLELISM} property is greater than one, the
+   * factories are planned concurrently. Otherwise they are planned one at a time in the calling thread.
+   * <p>
+   * Every factory is planned even if an earlier one fails. A single failure is re-thrown as is, multiple failures
+   * are reported by an IllegalStateException with the remaining failures attached as suppressed exceptions.
+   *
+   * @param processFactories
+   * @return Map of ProcessFactory to the Flow instances it created
+   */
+  protected Map<ProcessFactory, List<Flow>> createFlows( List<? extends ProcessFactory> processFactories )
+    {
+    ForkJoinPool pool = getPlannerPool();
+    boolean ownsPool = false;
+
+    if( pool == null && getPlannerParallelism() > 1 )
+      {
+      pool = new ForkJoinPool( getPlannerParallelism() );
+      ownsPool = true;
+      }
+
+    try
+      {
+      List<PlannerTask> tasks = new ArrayList<PlannerTask>();
+
+      for( ProcessFactory processFactory : processFactories )
+        {
+        PlannerTask task = new PlannerTask( processFactory );
+
+        if( pool != null )
+          pool.execute( task );
+
+        tasks.add( task );
+        }
+
+      Map<ProcessFactory, List<Flow>> flows = new LinkedHashMap<ProcessFactory, List<Flow>>();
+      List<Throwable> failures = new ArrayList<Throwable>();
+
+      for( PlannerTask task : tasks )
+        {
+        try
+          {
+          List<Flow> created = pool == null ? task.invoke() : task.get();
+
+          if( task.failure != null )
+            failures.add( task.failure );
+          else
+            flows.put( task.processFactory, created );
+          }
+        catch( ExecutionException exception )
+          {
+          failures.add( exception.getCause() );
+          }
+        catch( InterruptedException exception )
+          {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException( "interrupted while planning process factories", exception );
+          }
+        }
+
+      if( failures.size() == 1 && failures.get( 0 ) instanceof RuntimeException )
+        throw (RuntimeException) failures.get( 0 );
+
+      if( !failures.isEmpty() )
+        {
+        IllegalStateException exception = new IllegalStateException( "failed planning " + failures.size() + " of " + tasks.size() + " process factories, first failure: " + failures.get( 0 ).getMessage(), failures.get( 0 ) );
+
+        for( Throwable failure : failures.subList( 1, failures.size() ) )
+          exception.addSuppressed( failure );
+
+        throw exception;
+        }
+
+      return flows;
+      }
+    finally
+      {
+      if( ownsPool )
+        pool.shutdown();
+      }
+    }
+
+  private static List<Flow> createFlowsFor( ProcessFactory processFactory )
+    {
+    Object o = processFactory.create();
+
+    if( o == null )
+      throw new IllegalStateException( "factory returned null: " + processFactory );
+
+    if( o instanceof Flow )
+      return Collections.singletonList( (Flow) o );
+    else if( o instanceof Cascade )
+      return ( (Cascade) o ).getFlows();
+    else
+      throw new IllegalStateException( "process type not supported: " + o.getClass().getName() + ", returned by: " + processFactory );
+    }
+
+  /** Skips a flow whose process factory was found to be up to date. */
+  private static class UpToDateSkipStrategy implements FlowSkipStrategy
+    {
+    @Override
+    public boolean skipFlow( Flow flow ) throws IOException
+      {
+      return true;
+      }
+    }
+
+  /**
+   * Records the modified times of all resources read or written by the given process factories in the
+   * given manifest, once the cascade has successfully completed.
+   */
+  private static class ManifestListener implements CascadeListener
+    {
+    private final ResourceManifest resourceManifest;
+    private final List<ProcessFactory> processFactories;
+
+    private ManifestListener( ResourceManifest resourceManifest, List<ProcessFactory> processFactories )
+      {
+      this.resourceManifest = resourceManifest;
+      this.processFactories = processFactories;
+      }
+
+    @Override
+    public void onStarting( Cascade cascade )
+      {
+      }
+
+    @Override
+    public void onStopping( Cascade cascade )
+      {
+      }
+
+    @Override
+    public void onCompleted( Cascade cascade )
+      {
+      if( !cascade.getCascadeStats().isSuccessful() )
+        return;
+
+      long now = System.currentTimeMillis();
+
+      for( ProcessFactory<?, ?, Resource> processFactory : processFactories )
+        {
+        for( Resource source : processFactory.getAllSourceResources() )
+          {
+          if( processFactory.getModifiedTime( source ) < 0 && resourceManifest.getModifiedTime( source ) < 0 )
+            resourceManifest.setModifiedTime( source, now );
+          }
+
+        for( Resource sink : processFactory.getAllSinkResources() )
+          {
+          if( processFactory.getModifiedTime( sink ) < 0 )
+            resourceManifest.setModifiedTime( sink, now );
+          }
+        }
+
+      try
+        {
+        resourceManifest.store();
+        }
+      catch( IOException exception )
+        {
+        LOG.warn( "unable to store resource manifest: {}", resourceManifest.getFile(), exception );
+        }
+      }
+
+    @Override
+    public boolean onThrowable( Cascade cascade, Throwable throwable )
+      {
+      return false;
+      }
+    }
+
+  /** Deletes the sinks of the given cache flows once the cascade has completed. */
+  private static class CacheCleanupListener implements CascadeListener
+    {
+    private final List<Flow> cacheFlows;
+
+    private CacheCleanupListener( List<Flow> cacheFlows )
+      {
+      this.cacheFlows = cacheFlows;
+      }
+
+    @Override
+    public void onStarting( Cascade cascade )
+      {
+      }
+
+    @Override
+    public void onStopping( Cascade cascade )
+      {
+      }
+
+    @Override
+    public void onCompleted( Cascade cascade )
+      {
+      for( Flow flow : cacheFlows )
+        {
+        for( Object sink : flow.getSinksCollection() )
+          {
+          try
+            {
+            ( (Tap) sink ).deleteResource( flow.getConfig() );
+            }
+          catch( IOException exception )
+            {
+            LOG.warn( "unable to delete cached resource: {}", ( (Tap) sink ).getIdentifier(), exception );
+            }
+          }
+        }
+      }
+
+    @Override
+    public boolean onThrowable( Cascade cascade, Throwable throwable )
+      {
+      return false;
+      }
+    }
+
+  /** Deletes an intermediate {@link MemoryTap} once every flow reading it has completed. */
+  private static class MemoryReleaseListener implements FlowListener
+    {
+    private final MemoryTap memoryTap;
+    private final AtomicInteger remaining;
+
+    private MemoryReleaseListener( MemoryTap memoryTap, int consumers )
+      {
+      this.memoryTap = memoryTap;
+      this.remaining = new AtomicInteger( consumers );
+      }
+
+    @Override
+    public void onStarting( Flow flow )
+      {
+      }
+
+    @Override
+    public void onStopping( Flow flow )
+      {
+      }
+
+    @Override
+    public void onCompleted( Flow flow )
+      {
+      if( remaining.decrementAndGet() != 0 )
+        return;
+
+      try
+        {
+        memoryTap.deleteResource( (Properties) flow.getConfig() );
+        }
+      catch( IOException exception )
+        {
+        LOG.warn( "unable to release intermediate resource: {}", memoryTap.getIdentifier(), exception );
+        }
+      }
+
+    @Override
+    public boolean onThrowable( Flow flow, Throwable throwable )
+      {
+      return false;
+      }
+    }
+
+  /** Holds a resource replaced by a cached copy, for the duration of a single call to create. */
+  protected static class CachedResource
+    {
+    private final ProcessFactory cacheFactory;
+    private final Resource resource;
+    private final Resource cacheResource;
+    private final Collection<ProcessFactory> dependencies;
+
+    private CachedResource( ProcessFactory cacheFactory, Resource resource, Resource cacheResource, Collection<ProcessFactory> dependencies )
+      {
+      this.cacheFactory = cacheFactory;
+      this.resource = resource;
+      this.cacheResource = cacheResource;
+      this.dependencies = dependencies;
+      }
+
+    public ProcessFactory getCacheFactory()
+      {
+      return cacheFactory;
+      }
+
+    public Resource getResource()
+      {
+      return resource;
+      }
+
+    public Resource getCacheResource()
+      {
+      return cacheResource;
+      }
+
+    public Collection<ProcessFactory> getDependencies()
+      {
+      return dependencies;
+      }
+    }
+
+  /**
+   * Plans a single process factory. A planner failure is kept as thrown, since a ForkJoinTask may re-create
+   * exceptions thrown in another thread.
+   */
+  private static class PlannerTask extends RecursiveTask<List<Flow>>
+    {
+    private final ProcessFactory processFactory;
+    private RuntimeException failure;
+
+    private PlannerTask( ProcessFactory processFactory )
+      {
+      this.processFactory = processFactory;
+      }
+
+    @Override
+    protected List<Flow> compute()
+      {
+      try
+        {
+        return createFlowsFor( processFactory );
+        }
+      catch( RuntimeException exception )
+        {
+        failure = exception;
+
+        return null;
+        }
+      }
     }
   }
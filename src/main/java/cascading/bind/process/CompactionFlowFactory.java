@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.Stereotype;
+import cascading.bind.catalog.handler.Role;
+import cascading.flow.Flow;
+import cascading.flow.FlowConnector;
+import cascading.flow.FlowDef;
+import cascading.flow.FlowListener;
+import cascading.pipe.Pipe;
+import cascading.tap.SinkMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class CompactionFlowFactory is a {@link FlowFactory} that rewrites many small resources of a single
+ * {@link Stereotype} into fewer resources near a target size, in the same protocol and format.
+ * <p>
+ * Resources given to {@link #compact(Collection)} are grouped, in order, by context, protocol, and format, then
+ * packed into groups whose estimated size does not exceed the {@link #TARGET_SIZE}. Each group of two or more
+ * resources is copied into one new resource named {@code outputIdentifier + "/part-NNNNN"}. Resources at or above
+ * the target size, or of unknown size, are left in place.
+ * <p>
+ * Once the created Flow successfully completes, every group of resources is replaced by its compacted resource in
+ * the source bindings of every consumer added with {@link #addConsumer(ProcessFactory)}. The original resources are
+ * not deleted.
+ * <p>
+ * The swap only applies to flows planned after the compaction completes. Consumers already planned, including those
+ * planned in the same {@link cascading.cascade.Cascade}, still read the original resources. If this factory was added
+ * to a {@link CascadeFactory}, the swap goes through {@link CascadeFactory#replaceSourceResources} so the resource
+ * graph stays in sync.
+ */
+public class CompactionFlowFactory<Protocol, Format> extends FlowFactory<Protocol, Format>
+  {
+  /** Property TARGET_SIZE sets the target size in bytes of each compacted resource. The default is 128MB. */
+  public static final String TARGET_SIZE = "cascading.bind.compaction.target.size";
+
+  private static final Logger LOG = LoggerFactory.getLogger( CompactionFlowFactory.class );
+
+  private final Stereotype<Protocol, Format> stereotype;
+  private final FlowConnector flowConnector;
+  private final String outputIdentifier;
+  private final Map<Resource<Protocol, Format, SinkMode>, List<Resource<Protocol, Format, SinkMode>>> compactions = new LinkedHashMap<Resource<Protocol, Format, SinkMode>, List<Resource<Protocol, Format, SinkMode>>>();
+  private final List<ProcessFactory> consumers = new ArrayList<ProcessFactory>();
+  private volatile CascadeFactory cascadeFactory;
+
+  public static void setTargetSize( Map<Object, Object> properties, long bytes )
+    {
+    properties.put( TARGET_SIZE, Long.toString( bytes ) );
+    }
+
+  public CompactionFlowFactory( Properties properties, String name, Stereotype<Protocol, Format> stereotype, FlowConnector flowConnector, String outputIdentifier )
+    {
+    super( properties, name );
+
+    if( stereotype == null )
+      throw new IllegalArgumentException( "stereotype may not be null" );
+
+    if( flowConnector == null )
+      throw new IllegalArgumentException( "flowConnector may not be null" );
+
+    if( outputIdentifier == null || outputIdentifier.isEmpty() )
+      throw new IllegalArgumentException( "outputIdentifier may not be null or empty" );
+
+    this.stereotype = stereotype;
+    this.flowConnector = flowConnector;
+    this.outputIdentifier = outputIdentifier;
+    }
+
+  public Stereotype<Protocol, Format> getStereotype()
+    {
+    return stereotype;
+    }
+
+  public long getTargetSize()
+    {
+    if( getProperties() == null || getProperties().getProperty( TARGET_SIZE ) == null )
+      return 128L * 1024 * 1024;
+
+    return Long.parseLong( getProperties().getProperty( TARGET_SIZE ) );
+    }
+
+  /**
+   * Method compact groups the given resources for compaction, binding each group of two or more as a source, and its
+   * compacted resource as a sink, of this factory.
+   * <p>
+   * Handlers able to create a Tap for the given resources must be added before calling this method, so their sizes
+   * can be read, unless their sizes are recorded in the {@link cascading.bind.catalog.ResourceStatsCatalog}.
+   *
+   * @param resources
+   * @return List of the new compacted resources
+   */
+  public List<Resource<Protocol, Format, SinkMode>> compact( Collection<Resource<Protocol, Format, SinkMode>> resources )
+    {
+    long targetSize = getTargetSize();
+    Map<String, List<Resource<Protocol, Format, SinkMode>>> kinds = new LinkedHashMap<String, List<Resource<Protocol, Format, SinkMode>>>();
+
+    for( Resource<Protocol, Format, SinkMode> resource : resources )
+      {
+      String kind = resource.getContext() + "|" + resource.getProtocol() + "|" + resource.getFormat();
+
+      if( !kinds.containsKey( kind ) )
+        kinds.put( kind, new ArrayList<Resource<Protocol, Format, SinkMode>>() );
+
+      kinds.get( kind ).add( resource );
+      }
+
+    List<Resource<Protocol, Format, SinkMode>> compacted = new ArrayList<Resource<Protocol, Format, SinkMode>>();
+
+    for( List<Resource<Protocol, Format, SinkMode>> kind : kinds.values() )
+      {
+      List<Resource<Protocol, Format, SinkMode>> group = new ArrayList<Resource<Protocol, Format, SinkMode>>();
+      long groupSize = 0;
+
+      for( Resource<Protocol, Format, SinkMode> resource : kind )
+        {
+        long size = getSizeOf( resource );
+
+        if( size < 0 || size >= targetSize )
+          continue;
+
+        if( groupSize + size > targetSize )
+          {
+          addGroup( group, compacted );
+          group = new ArrayList<Resource<Protocol, Format, SinkMode>>();
+          groupSize = 0;
+          }
+
+        group.add( resource );
+        groupSize += size;
+        }
+
+      addGroup( group, compacted );
+      }
+
+    return compacted;
+    }
+
+  private long getSizeOf( Resource<Protocol, Format, SinkMode> resource )
+    {
+    if( getResourceStats( resource ) != null && getResourceStats( resource ).getSize() >= 0 )
+      return getResourceStats( resource ).getSize();
+
+    try
+      {
+      return getSizeOf( createTapFor( stereotype, resource, Role.source ), resource );
+      }
+    catch( IllegalStateException exception )
+      {
+      LOG.warn( "unable to read size of resource: {}, not compacting", resource, exception );
+      return -1;
+      }
+    }
+
+  private void addGroup( List<Resource<Protocol, Format, SinkMode>> group, List<Resource<Protocol, Format, SinkMode>> compacted )
+    {
+    if( group.size() < 2 )
+      return;
+
+    Resource<Protocol, Format, SinkMode> first = group.get( 0 );
+    String identifier = String.format( "%s/part-%05d", outputIdentifier, compactions.size() );
+    Resource<Protocol, Format, SinkMode> output = new Resource<Protocol, Format, SinkMode>( first.getContext(), identifier, first.getProtocol(), first.getFormat(), SinkMode.REPLACE );
+    String groupName = getGroupName( compactions.size() );
+
+    setSourceStereotype( groupName, stereotype );
+    setSinkStereotype( groupName, stereotype );
+    addSourceResource( groupName, group.toArray( new Resource[ group.size() ] ) );
+    addSinkResource( groupName, output );
+
+    compactions.put( output, group );
+    compacted.add( output );
+    }
+
+  private String getGroupName( int index )
+    {
+    return getName() + "-" + index;
+    }
+
+  /**
+   * Method getCompactions returns every compacted resource, mapped to the resources it replaces.
+   *
+   * @return Map of compacted resource to the resources it replaces
+   */
+  public Map<Resource<Protocol, Format, SinkMode>, List<Resource<Protocol, Format, SinkMode>>> getCompactions()
+    {
+    return Collections.unmodifiableMap( compactions );
+    }
+
+  /**
+   * Method addConsumer adds a process factory whose source bindings are updated once the compaction completes.
+   *
+   * @param consumer
+   */
+  public void addConsumer( ProcessFactory consumer )
+    {
+    if( consumer == null )
+      throw new IllegalArgumentException( "consumer may not be null" );
+
+    consumers.add( consumer );
+    }
+
+  public CascadeFactory getCascadeFactory()
+    {
+    return cascadeFactory;
+    }
+
+  /**
+   * Method setCascadeFactory sets the {@link CascadeFactory} the consumers were added to, so swapping the compacted
+   * resources also updates its resource graph. It is set when this factory is added to a CascadeFactory.
+   *
+   * @param cascadeFactory
+   */
+  public void setCascadeFactory( CascadeFactory cascadeFactory )
+    {
+    this.cascadeFactory = cascadeFactory;
+    }
+
+  /**
+   * Method swapResources replaces every group of compacted resources with its compacted resource in the source
+   * bindings of every consumer. It is called once the created Flow successfully completes.
+   */
+  public void swapResources()
+    {
+    CascadeFactory cascadeFactory = this.cascadeFactory;
+
+    for( Map.Entry<Resource<Protocol, Format, SinkMode>, List<Resource<Protocol, Format, SinkMode>>> entry : compactions.entrySet() )
+      {
+      Collection from = entry.getValue();
+      Collection to = Collections.singletonList( entry.getKey() );
+
+      for( ProcessFactory consumer : consumers )
+        {
+        boolean replaced;
+
+        if( cascadeFactory != null )
+          replaced = cascadeFactory.replaceSourceResources( consumer, from, to );
+        else
+          replaced = consumer.replaceSourceResources( from, to );
+
+        if( replaced )
+          LOG.info( "replaced: {}, resources with: {}, in: {}", new Object[]{entry.getValue().size(), entry.getKey(), consumer} );
+        }
+      }
+    }
+
+  @Override
+  protected FlowConnector getFlowConnector()
+    {
+    return flowConnector;
+    }
+
+  @Override
+  protected Pipe[] createAssembly( Map<String, Pipe> heads )
+    {
+    Pipe[] tails = new Pipe[ compactions.size() ];
+
+    for( int i = 0; i < tails.length; i++ )
+      tails[ i ] = heads.get( getGroupName( i ) );
+
+    return tails;
+    }
+
+  @Override
+  public Flow create( FlowDef flowDef )
+    {
+    if( compactions.isEmpty() )
+      throw new IllegalStateException( "no resources to compact in: " + getName() );
+
+    Flow flow = createFlowFrom( flowDef, createAssembly( createHeads() ) );
+
+    flow.addListener( new SwapListener() );
+
+    return flow;
+    }
+
+  /** Swaps the compacted resources into every consumer once the compaction succeeds. */
+  private class SwapListener implements FlowListener
+    {
+    @Override
+    public void onStarting( Flow flow )
+      {
+      }
+
+    @Override
+    public void onStopping( Flow flow )
+      {
+      }
+
+    @Override
+    public void onCompleted( Flow flow )
+      {
+      if( flow.getFlowStats().isSuccessful() )
+        swapResources();
+      }
+
+    @Override
+    public boolean onThrowable( Flow flow, Throwable throwable )
+      {
+      return false;
+      }
+    }
+  }
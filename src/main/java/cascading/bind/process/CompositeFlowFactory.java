@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.handler.Predicate;
+import cascading.flow.Flow;
+import cascading.flow.FlowConnector;
+import cascading.flow.FlowDef;
+import cascading.pipe.Checkpoint;
+import cascading.pipe.Pipe;
+import cascading.tap.Tap;
+
+/**
+ * Class CompositeFlowFactory is a {@link FlowFactory} that plans the pipe assemblies of a group of composable
+ * member factories as a single {@link Flow}.
+ * <p>
+ * Every fused resource, written by one member and read by another, is passed between the member assemblies in the
+ * pipeline instead of being written and read back. A fused resource that is also needed outside of the composite is
+ * written once through a {@link Checkpoint}.
+ * <p>
+ * Any other resource read by more than one member is read through a single source {@link Tap}, with each member
+ * assembly branching from the same head.
+ * <p>
+ * Members must be given in dependency order, and their source and sink names must not overlap.
+ */
+class CompositeFlowFactory extends FlowFactory
+  {
+  private final List<FlowFactory> members;
+  private final Set<Resource> fusedResources;
+  private final Set<Resource> checkpointResources;
+
+  CompositeFlowFactory( List<FlowFactory> members, Set<Resource> fusedResources, Set<Resource> checkpointResources )
+    {
+    super( members.get( 0 ).getProperties(), makeName( members ) );
+    this.members = members;
+    this.fusedResources = fusedResources;
+    this.checkpointResources = checkpointResources;
+
+    bindResources();
+    }
+
+  private static String makeName( List<FlowFactory> members )
+    {
+    StringBuilder builder = new StringBuilder();
+
+    for( FlowFactory member : members )
+      {
+      if( builder.length() != 0 )
+        builder.append( '+' );
+
+      builder.append( member.getName() );
+      }
+
+    return builder.toString();
+    }
+
+  /** Binds the resources read or written outside of the composite, so it can be placed in a {@link ResourceGraph}. */
+  private void bindResources()
+    {
+    for( FlowFactory member : members )
+      {
+      for( String sourceName : (Collection<String>) member.getSourceNames() )
+        {
+        List<Resource> resources = member.getSourceResources( sourceName );
+
+        if( !isFused( resources ) )
+          addSourceResource( sourceName, resources.toArray( new Resource[ resources.size() ] ) );
+        }
+
+      for( String sinkName : (Collection<String>) member.getSinkNames() )
+        {
+        List<Resource> resources = member.getSinkResources( sinkName );
+
+        if( !isFused( resources ) || checkpointResources.contains( resources.get( 0 ) ) )
+          addSinkResource( sinkName, resources.toArray( new Resource[ resources.size() ] ) );
+        }
+      }
+    }
+
+  /** Adds a source for any head created by a bucket join in the given member's assembly. */
+  private void addBucketSources( FlowDef flowDef, FlowFactory member, Pipe[] tails )
+    {
+    for( Pipe tail : tails )
+      {
+      for( Pipe head : tail.getHeads() )
+        {
+        if( flowDef.getSources().containsKey( head.getName() ) )
+          continue;
+
+        Tap tap = member.getSourceTapForHead( head.getName(), null, Collections.<Predicate>emptyList(), new HashSet<Predicate>() );
+
+        if( tap != null )
+          flowDef.addSource( head, tap );
+        }
+      }
+    }
+
+  private boolean isFused( List<Resource> resources )
+    {
+    return resources.size() == 1 && fusedResources.contains( resources.get( 0 ) );
+    }
+
+  public List<FlowFactory> getMembers()
+    {
+    return members;
+    }
+
+  @Override
+  protected FlowConnector getFlowConnector()
+    {
+    return members.get( 0 ).getFlowConnector();
+    }
+
+  @Override
+  public long getModifiedTime( Resource resource )
+    {
+    for( FlowFactory member : members )
+      {
+      if( member.getAllSourceResources().contains( resource ) || member.getAllSinkResources().contains( resource ) )
+        return member.getModifiedTime( resource );
+      }
+
+    return -1;
+    }
+
+  @Override
+  public long getSize( Resource resource )
+    {
+    for( FlowFactory member : members )
+      {
+      if( member.getAllSourceResources().contains( resource ) || member.getAllSinkResources().contains( resource ) )
+        return member.getSize( resource );
+      }
+
+    return -1;
+    }
+
+  @Override
+  public Flow create( FlowDef flowDef )
+    {
+    Map<Resource, Pipe> produced = new HashMap<Resource, Pipe>();
+    Map<Resource, Pipe> scanned = new HashMap<Resource, Pipe>();
+    Set<String> checkpoints = new HashSet<String>();
+
+    for( FlowFactory member : members )
+      {
+      Map<String, Pipe> heads = new HashMap<String, Pipe>();
+
+      for( String sourceName : (Collection<String>) member.getSourceNames() )
+        {
+        List<Resource> resources = member.getSourceResources( sourceName );
+
+        if( isFused( resources ) && produced.containsKey( resources.get( 0 ) ) )
+          {
+          heads.put( sourceName, new Pipe( sourceName, produced.get( resources.get( 0 ) ) ) );
+          continue;
+          }
+
+        if( resources.size() == 1 && scanned.containsKey( resources.get( 0 ) ) )
+          {
+          heads.put( sourceName, new Pipe( sourceName, scanned.get( resources.get( 0 ) ) ) );
+          continue;
+          }
+
+        Pipe head = new Pipe( sourceName );
+        Tap tap = member.getSourceTapFor( sourceName );
+
+        if( tap != null )
+          flowDef.addSource( head, tap );
+
+        if( resources.size() == 1 )
+          scanned.put( resources.get( 0 ), head );
+
+        heads.put( sourceName, head );
+        }
+
+      Pipe[] tails = member.createAssembly( heads );
+
+      if( tails == null )
+        throw new IllegalStateException( "factory is not composable: " + member.getName() );
+
+      addBucketSources( flowDef, member, tails );
+
+      for( Pipe tail : tails )
+        {
+        String sinkName = tail.getName();
+        List<Resource> resources = member.getSinkResources( sinkName );
+
+        if( !isFused( resources ) )
+          {
+          flowDef.addTailSink( tail, member.getSinkTapFor( sinkName ) );
+          continue;
+          }
+
+        Resource resource = resources.get( 0 );
+
+        if( checkpointResources.contains( resource ) && checkpoints.add( sinkName ) )
+          {
+          Checkpoint checkpoint = new Checkpoint( sinkName, tail );
+
+          flowDef.addCheckpoint( checkpoint, member.getSinkTapFor( sinkName ) );
+          produced.put( resource, checkpoint );
+          }
+        else
+          {
+          produced.put( resource, tail );
+          }
+        }
+      }
+
+    Flow flow = getFlowConnector().connect( flowDef );
+
+    if( getResourceStatsCatalog() != null )
+      flow.addListener( new ResourceStatsListener( this, getResourceStatsCatalog() ) );
+
+    return flow;
+    }
+  }
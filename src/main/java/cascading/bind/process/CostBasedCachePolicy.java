@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.Collection;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.ResourceStats;
+import cascading.bind.catalog.ResourceStatsCatalog;
+import cascading.tap.SinkMode;
+
+/**
+ * Class CostBasedCachePolicy is a {@link CachePolicy} that caches a resource when reading it once and writing and
+ * re-reading a copy for every dependent is estimated to be cheaper than every dependent reading the resource directly.
+ * <p>
+ * The cost of reading or writing a resource is the latency of its protocol plus its estimated size divided by
+ * the throughput of its protocol. The size is taken from the current {@link ResourceStatsCatalog}, when set and
+ * recorded for the resource. A {@link CascadeFactory} hands its own catalog to a policy that has none.
+ * <p>
+ * Sub-classes provide the latency and throughput of each protocol, where the cached copy should be written, and
+ * how it is copied.
+ *
+ * @param <Protocol> a 'protocol' type
+ * @param <Format>   a data 'format' type
+ */
+public abstract class CostBasedCachePolicy<Protocol, Format> implements CachePolicy
+  {
+  private ResourceStatsCatalog resourceStatsCatalog;
+
+  public ResourceStatsCatalog getResourceStatsCatalog()
+    {
+    return resourceStatsCatalog;
+    }
+
+  public void setResourceStatsCatalog( ResourceStatsCatalog resourceStatsCatalog )
+    {
+    this.resourceStatsCatalog = resourceStatsCatalog;
+    }
+
+  /**
+   * Method getLatency returns the fixed cost, in milliseconds, of opening a resource with the given protocol.
+   *
+   * @param protocol
+   * @return double
+   */
+  protected abstract double getLatency( Protocol protocol );
+
+  /**
+   * Method getThroughput returns the number of bytes per millisecond the given protocol can read or write.
+   *
+   * @param protocol
+   * @return double
+   */
+  protected abstract double getThroughput( Protocol protocol );
+
+  /**
+   * Method getEstimatedSize returns the size of the given resource in bytes recorded in the current
+   * {@link ResourceStatsCatalog}, or -1 if unknown.
+   * <p>
+   * When unknown, only protocol latency is considered.
+   *
+   * @param resource
+   * @return long
+   */
+  protected long getEstimatedSize( Resource<Protocol, Format, ?> resource )
+    {
+    if( resourceStatsCatalog == null )
+      return -1;
+
+    ResourceStats stats = resourceStatsCatalog.getStats( resource );
+
+    if( stats == null || stats.getSize() < 0 )
+      return -1;
+
+    return stats.getSize();
+    }
+
+  protected abstract Protocol getCacheProtocol( Resource<Protocol, Format, ?> resource );
+
+  protected abstract Format getCacheFormat( Resource<Protocol, Format, ?> resource );
+
+  protected abstract String getCacheIdentifier( Resource<Protocol, Format, ?> resource );
+
+  @Override
+  public boolean isCacheable( Resource resource, Collection<ProcessFactory> dependencies )
+    {
+    int fanOut = dependencies.size();
+
+    if( fanOut < 2 )
+      return false;
+
+    long size = Math.max( 0, getEstimatedSize( resource ) );
+    Protocol protocol = (Protocol) resource.getProtocol();
+    Protocol cacheProtocol = (Protocol) getCacheProtocol( resource );
+
+    double direct = fanOut * getCost( protocol, size );
+    double cached = getCost( protocol, size ) + getCost( cacheProtocol, size ) + fanOut * getCost( cacheProtocol, size );
+
+    return cached < direct;
+    }
+
+  protected double getCost( Protocol protocol, long size )
+    {
+    double throughput = getThroughput( protocol );
+
+    if( throughput <= 0 )
+      throw new IllegalStateException( "throughput must be greater than zero for protocol: " + protocol );
+
+    return getLatency( protocol ) + size / throughput;
+    }
+
+  @Override
+  public Resource createCacheResourceFor( Resource resource )
+    {
+    return new Resource<Protocol, Format, SinkMode>( resource.getContext(), getCacheIdentifier( resource ), (Protocol) getCacheProtocol( resource ), (Format) getCacheFormat( resource ), SinkMode.REPLACE );
+    }
+  }
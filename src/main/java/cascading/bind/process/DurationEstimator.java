@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.List;
+
+import cascading.flow.Flow;
+
+/**
+ * Interface DurationEstimator is used by {@link CascadeFactory} to weigh each {@link ProcessFactory} when
+ * computing the critical path through the resource graph.
+ * <p>
+ * If an implementation is also a {@link cascading.cascade.CascadeListener}, it is added to every
+ * created {@link cascading.cascade.Cascade} so it may record actual durations.
+ *
+ * @see HistoricalDurationEstimator
+ */
+public interface DurationEstimator
+  {
+  /**
+   * Method getEstimatedDuration returns the estimated duration, in milliseconds, of running the given flows
+   * created by the given process factory.
+   *
+   * @param processFactory
+   * @param flows
+   * @return long
+   */
+  long getEstimatedDuration( ProcessFactory processFactory, List<Flow> flows );
+  }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import cascading.pipe.Checkpoint;
+import cascading.pipe.Each;
+import cascading.pipe.Operator;
+import cascading.pipe.Pipe;
+import cascading.pipe.Splice;
+import cascading.pipe.SubAssembly;
+import cascading.tap.Tap;
+import cascading.tuple.Fields;
+
+/**
+ * Class FieldsProjection finds the names of the fields referenced by a pipe assembly and its sink taps, so that
+ * source schemes may skip decoding any other fields.
+ * <p>
+ * The analysis is conservative. Any argument or output selector that is not a list of field names, such as
+ * {@link Fields#ALL}, {@link Fields#RESULTS}, {@link Fields#REPLACE}, {@link Fields#SWAP} or a positional selector,
+ * or any pipe type it does not know, means every field may be referenced.
+ */
+class FieldsProjection
+  {
+  private FieldsProjection()
+    {
+    }
+
+  /**
+   * Method referencedFields returns the names of all fields referenced by the given assembly tails, and written by
+   * the given sink taps, or null if any field may be referenced.
+   *
+   * @param tails
+   * @param sinks
+   * @return Set of field names, or null
+   */
+  static Set<Comparable> referencedFields( Pipe[] tails, Collection<Tap> sinks )
+    {
+    Set<Comparable> referenced = new HashSet<Comparable>();
+
+    for( Tap sink : sinks )
+      {
+      if( !addFields( referenced, sink.getSinkFields() ) )
+        return null;
+      }
+
+    if( !addPipes( referenced, tails, new HashSet<Pipe>() ) )
+      return null;
+
+    return referenced;
+    }
+
+  /**
+   * Method project returns the given fields retaining only the referenced names, in the order given, or null if
+   * every field, or no field, is referenced.
+   *
+   * @param fields
+   * @param referenced
+   * @return Fields or null
+   */
+  static Fields project( Fields fields, Set<Comparable> referenced )
+    {
+    if( fields == null || referenced == null || !fields.isDefined() )
+      return null;
+
+    List<Comparable> retained = new ArrayList<Comparable>();
+
+    for( int i = 0; i < fields.size(); i++ )
+      {
+      if( referenced.contains( fields.get( i ) ) )
+        retained.add( fields.get( i ) );
+      }
+
+    if( retained.isEmpty() || retained.size() == fields.size() )
+      return null;
+
+    return fields.select( new Fields( retained.toArray( new Comparable[ retained.size() ] ) ) );
+    }
+
+  private static boolean addPipes( Set<Comparable> referenced, Pipe[] pipes, Set<Pipe> visited )
+    {
+    for( Pipe pipe : pipes )
+      {
+      if( !visited.add( pipe ) )
+        continue;
+
+      if( pipe instanceof Operator )
+        {
+        Operator operator = (Operator) pipe;
+
+        if( !addFields( referenced, operator.getArgumentSelector() ) )
+          return false;
+
+        // a filter passes every incoming field through, so its output selector is never applied
+        if( !( pipe instanceof Each && ( (Each) pipe ).isFilter() ) && !addFields( referenced, operator.getOutputSelector() ) )
+          return false;
+        }
+      else if( pipe instanceof Splice )
+        {
+        Splice splice = (Splice) pipe;
+
+        if( splice.getDeclaredFields() != null )
+          return false;
+
+        if( !addSelectors( referenced, splice.getKeySelectors() ) || !addSelectors( referenced, splice.getSortingSelectors() ) )
+          return false;
+        }
+      else if( pipe.getClass() != Pipe.class && !( pipe instanceof SubAssembly ) && !( pipe instanceof Checkpoint ) )
+        {
+        return false;
+        }
+
+      if( !addPipes( referenced, pipe.getPrevious(), visited ) )
+        return false;
+      }
+
+    return true;
+    }
+
+  private static boolean addSelectors( Set<Comparable> referenced, Map<String, Fields> selectors )
+    {
+    if( selectors == null )
+      return true;
+
+    for( Fields fields : selectors.values() )
+      {
+      if( !addFields( referenced, fields ) )
+        return false;
+      }
+
+    return true;
+    }
+
+  private static boolean addFields( Set<Comparable> referenced, Fields fields )
+    {
+    if( fields == null || fields.isNone() )
+      return true;
+
+    if( !fields.isDefined() )
+      return false;
+
+    for( int i = 0; i < fields.size(); i++ )
+      {
+      Comparable name = fields.get( i );
+
+      if( !( name instanceof String ) )
+        return false;
+
+      referenced.add( name );
+      }
+
+    return true;
+    }
+  }
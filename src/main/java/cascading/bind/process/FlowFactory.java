@@ -21,32 +21,59 @@
 
 package cascading.bind.process;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
 import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.ResourceStats;
 import cascading.bind.catalog.Stereotype;
+import cascading.bind.catalog.handler.CombiningProtocolHandler;
+import cascading.bind.catalog.handler.FilteringFormatHandler;
+import cascading.bind.catalog.handler.FilteringProtocolHandler;
 import cascading.bind.catalog.handler.FormatHandler;
 import cascading.bind.catalog.handler.FormatHandlers;
+import cascading.bind.catalog.handler.FormatTranscoder;
 import cascading.bind.catalog.handler.HandlerProvider;
+import cascading.bind.catalog.handler.Predicate;
+import cascading.bind.catalog.handler.ProjectingFormatHandler;
 import cascading.bind.catalog.handler.ProtocolHandler;
 import cascading.bind.catalog.handler.ProtocolHandlers;
 import cascading.bind.catalog.handler.Role;
+import cascading.bind.catalog.handler.StreamingProtocolHandler;
+import cascading.bind.catalog.handler.TranscodingFormatHandler;
+import cascading.bind.tap.ParallelMultiSinkTap;
+import cascading.bind.tap.ParallelMultiSourceTap;
 import cascading.cascade.Cascades;
 import cascading.flow.Flow;
 import cascading.flow.FlowConnector;
 import cascading.flow.FlowDef;
+import cascading.flow.planner.PlatformInfo;
+import cascading.flow.process.ProcessFlow;
+import cascading.pipe.CoGroup;
+import cascading.pipe.Each;
+import cascading.pipe.HashJoin;
+import cascading.pipe.Merge;
 import cascading.pipe.Pipe;
+import cascading.pipe.assembly.Retain;
+import cascading.pipe.joiner.InnerJoin;
+import cascading.pipe.joiner.Joiner;
 import cascading.scheme.Scheme;
 import cascading.tap.MultiSinkTap;
 import cascading.tap.MultiSourceTap;
 import cascading.tap.SinkMode;
 import cascading.tap.Tap;
+import cascading.tap.type.FileType;
+import cascading.tuple.Fields;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Class FlowFactory is a sub-class of {@link ProcessFactory} that returns Cascading {@link Flow} instances.
@@ -56,10 +83,115 @@ import cascading.tap.Tap;
  */
 public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowDef, Flow, Resource<Protocol, Format, SinkMode>>
   {
+  /**
+   * Property JOIN_MEMORY_THRESHOLD sets the largest estimated size in bytes of the resources behind one side of a join
+   * created by {@link #createJoin(String, Pipe, Fields, Pipe, Fields, Fields, Joiner)} for that side to be held in
+   * memory by a {@link HashJoin}. The default is 32MB.
+   */
+  public static final String JOIN_MEMORY_THRESHOLD = "cascading.bind.flow.join.memory.threshold";
+
+  /**
+   * Property COALESCE_SIZE enables source coalescing when greater than 0. Small resources bound to one source name,
+   * sharing the same context, protocol, and format, and handled by a {@link CombiningProtocolHandler}, are then read
+   * through a single Tap per group of resources, up to this estimated size in bytes. Disabled by default.
+   */
+  public static final String COALESCE_SIZE = "cascading.bind.flow.coalesce.size";
+
+  /**
+   * Property prefix PARALLEL_READ, followed by a source name, enables concurrent reads of the resources bound to that
+   * source name when run in local mode. The value is either {@code ordered}, returning the tuples of each resource in
+   * turn, or {@code unordered}, returning tuples as they are read.
+   *
+   * @see ParallelMultiSourceTap
+   */
+  public static final String PARALLEL_READ = "cascading.bind.flow.parallel.read.source.";
+
+  /**
+   * Property PARALLEL_READ_THREADS sets the number of threads reading one parallel source. The default is the number
+   * of available processors.
+   */
+  public static final String PARALLEL_READ_THREADS = "cascading.bind.flow.parallel.read.threads";
+
+  /**
+   * Property PARALLEL_READ_BUFFER sets the number of tuples buffered ahead of one parallel source. The default is 1024.
+   */
+  public static final String PARALLEL_READ_BUFFER = "cascading.bind.flow.parallel.read.buffer";
+
+  /**
+   * Property prefix PARALLEL_WRITE, followed by a sink name, enables writes through a {@link ParallelMultiSinkTap} to
+   * the resources bound to that sink name when run in local mode. The value is a comma separated list of the protocols
+   * written by their own thread, or {@code *} for all protocols.
+   */
+  public static final String PARALLEL_WRITE = "cascading.bind.flow.parallel.write.sink.";
+
+  /**
+   * Property PARALLEL_WRITE_BUFFER sets the number of tuples buffered ahead of each threaded parallel sink. The
+   * default is 1024.
+   */
+  public static final String PARALLEL_WRITE_BUFFER = "cascading.bind.flow.parallel.write.buffer";
+
+  private static final Logger LOG = LoggerFactory.getLogger( FlowFactory.class );
+
+  private static final String BUCKET_SEPARATOR = "#bucket-";
+
   protected String name;
 
   protected Map<Object, ProtocolHandlers<Protocol, Format>> protocolHandlers = new HashMap<Object, ProtocolHandlers<Protocol, Format>>();
   protected Map<Object, FormatHandlers<Protocol, Format>> formatHandlers = new HashMap<Object, FormatHandlers<Protocol, Format>>();
+  protected Map<Resource<Protocol, Format, SinkMode>, Tap> boundTaps = new HashMap<Resource<Protocol, Format, SinkMode>, Tap>();
+
+  public static void setJoinMemoryThreshold( Map<Object, Object> properties, long bytes )
+    {
+    properties.put( JOIN_MEMORY_THRESHOLD, Long.toString( bytes ) );
+    }
+
+  public static void setCoalesceSize( Map<Object, Object> properties, long bytes )
+    {
+    properties.put( COALESCE_SIZE, Long.toString( bytes ) );
+    }
+
+  public static void setParallelRead( Map<Object, Object> properties, String sourceName, boolean ordered )
+    {
+    properties.put( PARALLEL_READ + sourceName, ordered ? "ordered" : "unordered" );
+    }
+
+  public static void setParallelReadThreads( Map<Object, Object> properties, int threads )
+    {
+    properties.put( PARALLEL_READ_THREADS, Integer.toString( threads ) );
+    }
+
+  public static void setParallelReadBuffer( Map<Object, Object> properties, int tuples )
+    {
+    properties.put( PARALLEL_READ_BUFFER, Integer.toString( tuples ) );
+    }
+
+  /**
+   * Method setParallelWrite enables parallel writes for the given sink name, where resources of the given protocols
+   * are written by their own thread. If no protocols are given, every resource is written by its own thread.
+   *
+   * @param properties
+   * @param sinkName
+   * @param threadedProtocols
+   */
+  public static void setParallelWrite( Map<Object, Object> properties, String sinkName, Object... threadedProtocols )
+    {
+    StringBuilder value = new StringBuilder();
+
+    for( Object protocol : threadedProtocols )
+      {
+      if( value.length() != 0 )
+        value.append( ',' );
+
+      value.append( protocol );
+      }
+
+    properties.put( PARALLEL_WRITE + sinkName, value.length() == 0 ? "*" : value.toString() );
+    }
+
+  public static void setParallelWriteBuffer( Map<Object, Object> properties, int tuples )
+    {
+    properties.put( PARALLEL_WRITE_BUFFER, Integer.toString( tuples ) );
+    }
 
   protected FlowFactory()
     {
@@ -145,7 +277,9 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
    * {@link cascading.bind.catalog.handler.ProtocolHandler} instance.
    * <p>
    * If more than one Resource is bound to the given name, a {@link MultiSourceTap}
-   * will be returned encapsulating all the resulting Tap instances.
+   * will be returned encapsulating all the resulting Tap instances. If {@link #COALESCE_SIZE} is set, small
+   * resources may share a single Tap created by a {@link CombiningProtocolHandler}. If {@link #PARALLEL_READ} is
+   * set for the given name in local mode, a {@link ParallelMultiSourceTap} is returned instead.
    *
    * @param sourceName
    * @return
@@ -161,10 +295,29 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
     }
 
   protected Tap getSourceTapFor( String sourceName, Stereotype<Protocol, Format> stereotype )
+    {
+    return getSourceTapFor( sourceName, stereotype, null );
+    }
+
+  /**
+   * Method getSourceTapFor returns a new {@link Tap} instance for the given name, where any Scheme created by
+   * a {@link ProjectingFormatHandler} only needs to provide the given referenced fields.
+   *
+   * @param sourceName
+   * @param stereotype
+   * @param referencedFields the names of all referenced fields, or null if all fields may be referenced
+   * @return
+   */
+  protected Tap getSourceTapFor( String sourceName, Stereotype<Protocol, Format> stereotype, Set<Comparable> referencedFields )
+    {
+    return getSourceTapFor( sourceName, stereotype, referencedFields, Collections.<Predicate>emptyList(), new HashSet<Predicate>() );
+    }
+
+  private Tap getSourceTapFor( String sourceName, Stereotype<Protocol, Format> stereotype, Set<Comparable> referencedFields, List<Predicate> predicates, Set<Predicate> applied )
     {
     List<Resource<Protocol, Format, SinkMode>> resources = getSourceResources( sourceName );
 
-    Tap[] taps = createTapFor( stereotype, resources, Role.source );
+    Tap[] taps = createTapFor( stereotype, resources, Role.source, referencedFields, predicates, applied );
 
     if( taps == null )
       return null;
@@ -172,7 +325,43 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
     if( taps.length == 1 )
       return taps[ 0 ];
 
-    return new MultiSourceTap( taps );
+    String parallelRead = getProperties() == null ? null : getProperties().getProperty( PARALLEL_READ + sourceName );
+
+    if( parallelRead == null || !isLocal() )
+      return new MultiSourceTap( taps );
+
+    if( !"ordered".equals( parallelRead ) && !"unordered".equals( parallelRead ) )
+      throw new IllegalArgumentException( "parallel read must be ordered or unordered, got: " + parallelRead + ", for source name: " + sourceName );
+
+    return new ParallelMultiSourceTap( getParallelReadThreads(), getParallelReadBuffer(), "ordered".equals( parallelRead ), taps );
+    }
+
+  protected int getParallelReadThreads()
+    {
+    if( getProperties() == null || getProperties().getProperty( PARALLEL_READ_THREADS ) == null )
+      return Runtime.getRuntime().availableProcessors();
+
+    return Integer.parseInt( getProperties().getProperty( PARALLEL_READ_THREADS ) );
+    }
+
+  protected int getParallelReadBuffer()
+    {
+    if( getProperties() == null || getProperties().getProperty( PARALLEL_READ_BUFFER ) == null )
+      return 1024;
+
+    return Integer.parseInt( getProperties().getProperty( PARALLEL_READ_BUFFER ) );
+    }
+
+  /**
+   * Method isLocal returns true if the current FlowConnector plans Cascading local mode flows.
+   *
+   * @return boolean
+   */
+  boolean isLocal()
+    {
+    PlatformInfo platformInfo = getFlowConnector().getPlatformInfo();
+
+    return platformInfo != null && "local".equals( platformInfo.name );
     }
 
   /**
@@ -182,7 +371,8 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
    * {@link cascading.bind.catalog.handler.ProtocolHandler} instance.
    * <p>
    * If more than one Resource is bound to the given name, a {@link MultiSinkTap}
-   * will be returned encapsulating all the resulting Tap instances.
+   * will be returned encapsulating all the resulting Tap instances. If {@link #PARALLEL_WRITE} is set for the given
+   * name in local mode, a {@link ParallelMultiSinkTap} is returned instead.
    *
    * @param sinkName
    * @return
@@ -201,7 +391,7 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
     {
     List<Resource<Protocol, Format, SinkMode>> resources = getSinkResources( sinkName );
 
-    Tap[] taps = createTapFor( stereotype, resources, Role.sink );
+    Tap[] taps = createTapFor( stereotype, resources, Role.sink, null, Collections.<Predicate>emptyList(), new HashSet<Predicate>() );
 
     if( taps == null )
       return null;
@@ -209,7 +399,63 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
     if( taps.length == 1 )
       return taps[ 0 ];
 
-    return new MultiSinkTap( taps );
+    String parallelWrite = getProperties() == null ? null : getProperties().getProperty( PARALLEL_WRITE + sinkName );
+
+    if( parallelWrite == null || !isLocal() )
+      return new MultiSinkTap( taps );
+
+    Set<String> threadedProtocols = new HashSet<String>();
+
+    for( String protocol : parallelWrite.split( "," ) )
+      threadedProtocols.add( protocol.trim() );
+
+    boolean[] threaded = new boolean[ taps.length ];
+
+    for( int i = 0; i < taps.length; i++ )
+      {
+      Protocol protocol = resources.get( i ).getProtocol();
+
+      if( protocol == null )
+        protocol = stereotype.getDefaultProtocol();
+
+      threaded[ i ] = threadedProtocols.contains( "*" ) || threadedProtocols.contains( String.valueOf( protocol ) );
+      }
+
+    return new ParallelMultiSinkTap( getParallelWriteBuffer(), threaded, taps );
+    }
+
+  protected int getParallelWriteBuffer()
+    {
+    if( getProperties() == null || getProperties().getProperty( PARALLEL_WRITE_BUFFER ) == null )
+      return 1024;
+
+    return Integer.parseInt( getProperties().getProperty( PARALLEL_WRITE_BUFFER ) );
+    }
+
+  /**
+   * Method bindTap binds the given {@link Tap} instance to the given source or sink resource. The Tap will be used
+   * in place of a Tap created by the resource's {@link ProtocolHandler}.
+   *
+   * @param resource
+   * @param tap
+   */
+  public void bindTap( Resource<Protocol, Format, SinkMode> resource, Tap tap )
+    {
+    if( tap == null )
+      throw new IllegalArgumentException( "tap may not be null" );
+
+    boundTaps.put( resource, tap );
+    }
+
+  /**
+   * Method unbindTap removes any Tap bound to the given resource by {@link #bindTap(Resource, Tap)}.
+   *
+   * @param resource
+   * @return the Tap removed, or null
+   */
+  public Tap unbindTap( Resource<Protocol, Format, SinkMode> resource )
+    {
+    return boundTaps.remove( resource );
     }
 
   ProtocolHandler getProtocolHandler( Object context, Protocol protocol )
@@ -222,53 +468,332 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
     return getFormatHandlers( context ).findHandlerFor( protocol, format );
     }
 
-  private Tap[] createTapFor( Stereotype<Protocol, Format> stereotype, List<Resource<Protocol, Format, SinkMode>> resources, Role role )
+  /**
+   * Method createTapFor returns a new Tap for each of the given resources, or for each group of coalesced source
+   * resources, adding to the given applied set only the predicates applied by every returned Tap.
+   */
+  private Tap[] createTapFor( Stereotype<Protocol, Format> stereotype, List<Resource<Protocol, Format, SinkMode>> resources, Role role, Set<Comparable> referencedFields, List<Predicate> predicates, Set<Predicate> applied )
     {
     if( resources.isEmpty() )
       return null;
 
-    Tap[] taps = new Tap[ resources.size() ];
+    List<List<Resource<Protocol, Format, SinkMode>>> units = role == Role.source ? coalesce( stereotype, resources ) : singletons( resources );
+    Tap[] taps = new Tap[ units.size() ];
+    Set<Predicate> appliedByAll = null;
 
-    for( int i = 0; i < resources.size(); i++ )
+    for( int i = 0; i < units.size(); i++ )
       {
-      Resource<Protocol, Format, SinkMode> resource = resources.get( i );
-      Object context = resource.getContext();
-      Protocol protocol = resource.getProtocol();
-      Format format = resource.getFormat();
+      Set<Predicate> appliedByTap = new HashSet<Predicate>();
+      List<Resource<Protocol, Format, SinkMode>> unit = units.get( i );
+
+      if( unit.size() == 1 )
+        taps[ i ] = createTapFor( stereotype, unit.get( 0 ), role, referencedFields, predicates, appliedByTap );
+      else
+        taps[ i ] = createCombinedTapFor( stereotype, unit, role, referencedFields, predicates, appliedByTap );
+
+      if( appliedByAll == null )
+        appliedByAll = appliedByTap;
+      else
+        appliedByAll.retainAll( appliedByTap );
+      }
 
-      if( protocol == null )
-        protocol = stereotype.getDefaultProtocol();
+    applied.addAll( appliedByAll );
+    applied.retainAll( predicates );
+
+    return taps;
+    }
+
+  protected long getCoalesceSize()
+    {
+    if( getProperties() == null || getProperties().getProperty( COALESCE_SIZE ) == null )
+      return 0;
+
+    return Long.parseLong( getProperties().getProperty( COALESCE_SIZE ) );
+    }
+
+  /**
+   * Method coalesce returns the given resources in read units, where each unit holds resources of the same context,
+   * protocol, and format, handled by a {@link CombiningProtocolHandler}, up to the {@link #COALESCE_SIZE} in total.
+   * Every other resource is returned in its own unit.
+   */
+  private List<List<Resource<Protocol, Format, SinkMode>>> coalesce( Stereotype<Protocol, Format> stereotype, List<Resource<Protocol, Format, SinkMode>> resources )
+    {
+    long coalesceSize = getCoalesceSize();
 
-      if( format == null )
-        format = stereotype.getDefaultFormat();
+    if( coalesceSize <= 0 || resources.size() < 2 )
+      return singletons( resources );
 
-      Scheme scheme = stereotype.getSchemeFor( format );
+    List<List<Resource<Protocol, Format, SinkMode>>> units = new ArrayList<List<Resource<Protocol, Format, SinkMode>>>();
+    Map<String, List<Resource<Protocol, Format, SinkMode>>> kinds = new LinkedHashMap<String, List<Resource<Protocol, Format, SinkMode>>>();
 
-      if( scheme == null )
+    for( Resource<Protocol, Format, SinkMode> resource : resources )
+      {
+      if( boundTaps.containsKey( resource ) || !( getProtocolHandlerFor( stereotype, resource ) instanceof CombiningProtocolHandler ) )
         {
-        FormatHandler formatHandler = getFormatHandler( context, protocol, format );
+        units.add( Collections.singletonList( resource ) );
+        continue;
+        }
 
-        if( formatHandler == null )
-          throw new IllegalStateException( "could not find handler for format: " + format );
+      String kind = resource.getContext() + "|" + getProtocolFor( stereotype, resource ) + "|" + getFormatFor( stereotype, resource );
 
-        scheme = formatHandler.createScheme( getProperties(), stereotype, protocol, format, role );
+      if( !kinds.containsKey( kind ) )
+        kinds.put( kind, new ArrayList<Resource<Protocol, Format, SinkMode>>() );
+
+      kinds.get( kind ).add( resource );
+      }
+
+    for( List<Resource<Protocol, Format, SinkMode>> kind : kinds.values() )
+      {
+      List<Resource<Protocol, Format, SinkMode>> unit = new ArrayList<Resource<Protocol, Format, SinkMode>>();
+      long unitSize = 0;
+
+      for( Resource<Protocol, Format, SinkMode> resource : kind )
+        {
+        long size = getEstimatedSize( resource );
+
+        if( size < 0 || size >= coalesceSize )
+          {
+          units.add( Collections.singletonList( resource ) );
+          continue;
+          }
+
+        if( !unit.isEmpty() && unitSize + size > coalesceSize )
+          {
+          units.add( unit );
+          unit = new ArrayList<Resource<Protocol, Format, SinkMode>>();
+          unitSize = 0;
+          }
+
+        unit.add( resource );
+        unitSize += size;
         }
 
-      if( scheme == null )
-        throw new IllegalStateException( "no scheme found for protocol: " + protocol + ", format: " + format );
+      if( !unit.isEmpty() )
+        units.add( unit );
+      }
+
+    return units;
+    }
 
-      ProtocolHandler protocolHandler = getProtocolHandler( context, protocol );
+  private List<List<Resource<Protocol, Format, SinkMode>>> singletons( List<Resource<Protocol, Format, SinkMode>> resources )
+    {
+    List<List<Resource<Protocol, Format, SinkMode>>> units = new ArrayList<List<Resource<Protocol, Format, SinkMode>>>();
 
-      if( protocolHandler == null )
-        throw new IllegalStateException( "could not find handler for protocol: " + protocol );
+    for( Resource<Protocol, Format, SinkMode> resource : resources )
+      units.add( Collections.singletonList( resource ) );
 
-      taps[ i ] = protocolHandler.createTap( getProperties(), scheme, resource, role );
+    return units;
+    }
 
-      if( taps[ i ] == null )
-        throw new IllegalStateException( "no tap found for protocol: " + protocol );
+  /**
+   * Method createCombinedTapFor returns a single Tap reading all the given resources, created by their
+   * {@link CombiningProtocolHandler}. Only predicates applied by the Scheme are added to the given applied set.
+   */
+  private Tap createCombinedTapFor( Stereotype<Protocol, Format> stereotype, List<Resource<Protocol, Format, SinkMode>> resources, Role role, Set<Comparable> referencedFields, List<Predicate> predicates, Set<Predicate> applied )
+    {
+    Resource<Protocol, Format, SinkMode> first = resources.get( 0 );
+    Scheme scheme = createSchemeFor( stereotype, first, role, referencedFields, predicates, applied );
+    CombiningProtocolHandler protocolHandler = (CombiningProtocolHandler) getProtocolHandlerFor( stereotype, first );
+
+    Tap tap = protocolHandler.createCombinedTap( getProperties(), scheme, resources, role );
+
+    if( tap == null )
+      throw new IllegalStateException( "no combined tap found for protocol: " + getProtocolFor( stereotype, first ) );
+
+    return tap;
+    }
+
+  /**
+   * Method createTapFor returns a new Tap for the given bound resource, or null if the resource is not bound
+   * in the given role.
+   *
+   * @param resource
+   * @param role
+   * @return Tap
+   */
+  Tap createTapFor( Resource<Protocol, Format, SinkMode> resource, Role role )
+    {
+    Stereotype<Protocol, Format> stereotype = role == Role.sink ? getSinkStereotypeFor( resource ) : getSourceStereotypeFor( resource );
+
+    if( stereotype == null )
+      return null;
+
+    return createTapFor( stereotype, resource, role );
+    }
+
+  Tap createTapFor( Stereotype<Protocol, Format> stereotype, Resource<Protocol, Format, SinkMode> resource, Role role )
+    {
+    return createTapFor( stereotype, resource, role, null, Collections.<Predicate>emptyList(), new HashSet<Predicate>() );
+    }
+
+  private Tap createTapFor( Stereotype<Protocol, Format> stereotype, Resource<Protocol, Format, SinkMode> resource, Role role, Set<Comparable> referencedFields, List<Predicate> predicates, Set<Predicate> applied )
+    {
+    if( boundTaps.containsKey( resource ) )
+      return boundTaps.get( resource );
+
+    Scheme scheme = createSchemeFor( stereotype, resource, role, referencedFields, predicates, applied );
+    ProtocolHandler protocolHandler = getProtocolHandlerFor( stereotype, resource );
+
+    Tap tap;
+
+    if( role == Role.source && !predicates.isEmpty() && protocolHandler instanceof FilteringProtocolHandler )
+      tap = ( (FilteringProtocolHandler) protocolHandler ).createTap( getProperties(), scheme, resource, role, predicates, applied );
+    else
+      tap = protocolHandler.createTap( getProperties(), scheme, resource, role );
+
+    if( tap == null )
+      throw new IllegalStateException( "no tap found for protocol: " + getProtocolFor( stereotype, resource ) );
+
+    if( role == Role.source )
+      tap = getProtocolHandlers( resource.getContext() ).decorate( getProperties(), getProtocolFor( stereotype, resource ), tap );
+
+    return tap;
+    }
+
+  private Scheme createSchemeFor( Stereotype<Protocol, Format> stereotype, Resource<Protocol, Format, SinkMode> resource, Role role, Set<Comparable> referencedFields, List<Predicate> predicates, Set<Predicate> applied )
+    {
+    Protocol protocol = getProtocolFor( stereotype, resource );
+    Format format = getFormatFor( stereotype, resource );
+
+    Scheme scheme = stereotype.getSchemeFor( format );
+
+    if( scheme == null )
+      {
+      FormatHandler formatHandler = getFormatHandler( resource.getContext(), protocol, format );
+
+      if( formatHandler == null )
+        throw new IllegalStateException( "could not find handler for format: " + format );
+
+      Fields projection = role == Role.source ? FieldsProjection.project( stereotype.getFields(), referencedFields ) : null;
+
+      if( role == Role.source && !predicates.isEmpty() && formatHandler instanceof FilteringFormatHandler )
+        scheme = ( (FilteringFormatHandler) formatHandler ).createScheme( getProperties(), stereotype, protocol, format, role, projection, predicates, applied );
+      else if( projection != null && formatHandler instanceof ProjectingFormatHandler )
+        scheme = ( (ProjectingFormatHandler) formatHandler ).createScheme( getProperties(), stereotype, protocol, format, role, projection );
+      else
+        scheme = formatHandler.createScheme( getProperties(), stereotype, protocol, format, role );
       }
 
-    return taps;
+    if( scheme == null )
+      throw new IllegalStateException( "no scheme found for protocol: " + protocol + ", format: " + format );
+
+    return scheme;
+    }
+
+  private ProtocolHandler getProtocolHandlerFor( Stereotype<Protocol, Format> stereotype, Resource<Protocol, Format, SinkMode> resource )
+    {
+    Protocol protocol = getProtocolFor( stereotype, resource );
+    ProtocolHandler protocolHandler = getProtocolHandler( resource.getContext(), protocol );
+
+    if( protocolHandler == null )
+      throw new IllegalStateException( "could not find handler for protocol: " + protocol );
+
+    return protocolHandler;
+    }
+
+  private Protocol getProtocolFor( Stereotype<Protocol, Format> stereotype, Resource<Protocol, Format, SinkMode> resource )
+    {
+    return resource.getProtocol() == null ? stereotype.getDefaultProtocol() : resource.getProtocol();
+    }
+
+  private Format getFormatFor( Stereotype<Protocol, Format> stereotype, Resource<Protocol, Format, SinkMode> resource )
+    {
+    return resource.getFormat() == null ? stereotype.getDefaultFormat() : resource.getFormat();
+    }
+
+  /**
+   * Method getResourceConfig returns the platform configuration handed to {@link Tap} methods when inspecting a
+   * resource outside of a running {@link Flow}.
+   * <p>
+   * By default the factory properties are returned if the current FlowConnector plans Cascading local mode flows,
+   * otherwise null, in which case resources are not inspected. Sub-classes targeting other platforms should return
+   * that platform's configuration type.
+   *
+   * @return a platform configuration object, or null
+   */
+  protected Object getResourceConfig()
+    {
+    if( !isLocal() )
+      return null;
+
+    return getProperties() == null ? new Properties() : getProperties();
+    }
+
+  /**
+   * Method getModifiedTime returns the modified time reported by the {@link Tap} bound to the given resource.
+   * <p>
+   * Returns 0 if the resource does not exist, and -1 if the Tap does not report a modified time.
+   *
+   * @param resource
+   * @return long
+   */
+  @Override
+  public long getModifiedTime( Resource<Protocol, Format, SinkMode> resource )
+    {
+    Role role = getAllSinkResources().contains( resource ) ? Role.sink : Role.source;
+    Tap tap = createTapFor( resource, role );
+
+    if( tap == null )
+      return -1;
+
+    Object config = getResourceConfig();
+
+    if( config == null )
+      return -1;
+
+    try
+      {
+      if( !tap.resourceExists( config ) )
+        return 0;
+
+      long modifiedTime = tap.getModifiedTime( config );
+
+      return modifiedTime > 0 ? modifiedTime : -1;
+      }
+    catch( IOException exception )
+      {
+      throw new IllegalStateException( "unable to read modified time of resource: " + resource, exception );
+      }
+    }
+
+  /**
+   * Method getSize returns the size in bytes reported by the {@link Tap} bound to the given resource, if the Tap
+   * is a {@link FileType}.
+   * <p>
+   * Returns 0 if the resource does not exist, and -1 if the size cannot be determined.
+   *
+   * @param resource
+   * @return long
+   */
+  @Override
+  public long getSize( Resource<Protocol, Format, SinkMode> resource )
+    {
+    Role role = getAllSinkResources().contains( resource ) ? Role.sink : Role.source;
+
+    return getSizeOf( createTapFor( resource, role ), resource );
+    }
+
+  long getSizeOf( Tap tap, Resource<Protocol, Format, SinkMode> resource )
+    {
+    if( !( tap instanceof FileType ) )
+      return -1;
+
+    Object config = getResourceConfig();
+
+    if( config == null )
+      return -1;
+
+    try
+      {
+      if( !tap.resourceExists( config ) )
+        return 0;
+
+      return ( (FileType) tap ).getSize( config );
+      }
+    catch( IOException exception )
+      {
+      throw new IllegalStateException( "unable to read size of resource: " + resource, exception );
+      }
     }
 
   protected Tap[] getSourceTapsFor( String... sourceNames )
@@ -302,6 +827,29 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
     }
 
   protected Map<String, Tap> getSourceTapsMap( Pipe... sinkPipes )
+    {
+    return getSourceTapsMap( null, sinkPipes );
+    }
+
+  /**
+   * Method getSourceTapsMap returns a new Tap for the head of each of the given tails, keyed by name, where any
+   * Scheme created by a {@link ProjectingFormatHandler} only needs to provide the given referenced fields.
+   *
+   * @param referencedFields the names of all referenced fields, or null if all fields may be referenced
+   * @param sinkPipes
+   * @return
+   */
+  protected Map<String, Tap> getSourceTapsMap( Set<Comparable> referencedFields, Pipe... sinkPipes )
+    {
+    return getSourceTapsMap( referencedFields, Collections.<String, List<List<Each>>>emptyMap(), new HashMap<String, Set<Predicate>>(), sinkPipes );
+    }
+
+  /**
+   * Method getSourceTapsMap returns a new Tap for the head of each of the given tails, keyed by name, handing the
+   * predicates common to the leading {@link PredicateFilter} chains of every head with that name to any filtering
+   * handlers. The predicates fully applied by each source are put in the given map, keyed by source name.
+   */
+  private Map<String, Tap> getSourceTapsMap( Set<Comparable> referencedFields, Map<String, List<List<Each>>> leadingFilters, Map<String, Set<Predicate>> appliedBySource, Pipe... sinkPipes )
     {
     Set<Pipe> sourcePipesSet = new HashSet<Pipe>();
 
@@ -309,9 +857,22 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
       Collections.addAll( sourcePipesSet, pipe.getHeads() );
 
     Pipe[] sourcePipes = sourcePipesSet.toArray( new Pipe[ sourcePipesSet.size() ] );
-    String[] names = makeNames( sourcePipes );
+    Tap[] taps = new Tap[ sourcePipes.length ];
+
+    for( int i = 0; i < sourcePipes.length; i++ )
+      {
+      String sourceName = sourcePipes[ i ].getName();
+      Set<Predicate> applied = new HashSet<Predicate>();
 
-    return Cascades.tapsMap( sourcePipes, getSourceTapsFor( names ) );
+      taps[ i ] = getSourceTapForHead( sourceName, referencedFields, PredicatePushdown.predicatesFor( leadingFilters.get( sourceName ) ), applied );
+
+      if( taps[ i ] == null )
+        throw new IllegalArgumentException( "no resource found for source name: " + sourceName );
+
+      appliedBySource.put( sourceName, applied );
+      }
+
+    return Cascades.tapsMap( sourcePipes, taps );
     }
 
   protected Map<String, Tap> getSinkTapsMap( Pipe... sinkPipes )
@@ -339,20 +900,450 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
    */
   protected abstract FlowConnector getFlowConnector();
 
+  /**
+   * Method createHeads returns a new head {@link Pipe} for every bound source name, keyed by source name.
+   *
+   * @return Map of source name to head Pipe
+   */
+  protected Map<String, Pipe> createHeads()
+    {
+    Map<String, Pipe> heads = new HashMap<String, Pipe>();
+
+    for( String sourceName : getSourceNames() )
+      heads.put( sourceName, new Pipe( sourceName ) );
+
+    return heads;
+    }
+
+  /**
+   * Method createAssembly returns the tail pipes of this factory's pipe assembly, built on the given head pipes.
+   * <p>
+   * The given map holds a head Pipe for every bound source name, and every returned tail must be named after a bound
+   * sink name. The head pipes may be preceded by other assemblies, so implementations must use the given heads rather
+   * than creating their own, and must not have side effects.
+   * <p>
+   * Factories that implement this method, typically calling {@code createFlowFrom( flowDef, createAssembly( createHeads() ) )}
+   * from {@link #create(FlowDef)}, may be composed with other factories by a {@link CascadeFactory}.
+   * By default null is returned, and the factory is not composable.
+   *
+   * @param heads
+   * @return Pipe[] of tails, or null
+   */
+  protected Pipe[] createAssembly( Map<String, Pipe> heads )
+    {
+    return null;
+    }
+
+  /**
+   * Method isComposable returns true if {@link #createAssembly(Map)} is implemented by this factory.
+   *
+   * @return boolean
+   */
+  public boolean isComposable()
+    {
+    return createAssembly( createHeads() ) != null;
+    }
+
+  /**
+   * Method isPartitionable returns true if this factory's pipe assembly may be applied to each partition of its
+   * resources independently, where a partition is the resource at the same index in every source and sink binding.
+   * <p>
+   * Only return true if the assembly never combines tuples from different partitions. By default false is returned.
+   *
+   * @return boolean
+   * @see #getNumPartitions()
+   */
+  public boolean isPartitionable()
+    {
+    return false;
+    }
+
+  /**
+   * Method getNumPartitions returns the number of partitions this factory may be split into, or 1 if it is not
+   * partitionable, not composable, or the number of resources bound to each name differ.
+   *
+   * @return int
+   */
+  public int getNumPartitions()
+    {
+    if( !isPartitionable() || !isComposable() )
+      return 1;
+
+    int partitions = -1;
+
+    for( List<?> resources : sourceResources.values() )
+      {
+      if( partitions != -1 && partitions != resources.size() )
+        return 1;
+
+      partitions = resources.size();
+      }
+
+    for( List<?> resources : sinkResources.values() )
+      {
+      if( partitions != -1 && partitions != resources.size() )
+        return 1;
+
+      partitions = resources.size();
+      }
+
+    return Math.max( 1, partitions );
+    }
+
+  /**
+   * Method createPartitionFactory returns a new FlowFactory planning this factory's pipe assembly over the
+   * given partition of its resources.
+   *
+   * @param partition
+   * @return FlowFactory
+   */
+  public FlowFactory<Protocol, Format> createPartitionFactory( int partition )
+    {
+    if( partition < 0 || partition >= getNumPartitions() )
+      throw new IllegalArgumentException( "partition out of range: " + partition + ", partitions: " + getNumPartitions() );
+
+    return new PartitionFlowFactory<Protocol, Format>( this, partition );
+    }
+
+  protected long getJoinMemoryThreshold()
+    {
+    if( getProperties() == null || getProperties().getProperty( JOIN_MEMORY_THRESHOLD ) == null )
+      return 32L * 1024 * 1024;
+
+    return Long.parseLong( getProperties().getProperty( JOIN_MEMORY_THRESHOLD ) );
+    }
+
+  protected Pipe createJoin( Pipe lhs, Fields lhsFields, Pipe rhs, Fields rhsFields )
+    {
+    return createJoin( null, lhs, lhsFields, rhs, rhsFields, null, null );
+    }
+
+  /**
+   * Method createJoin returns a {@link HashJoin} of the given pipes if the estimated size of one side is under the
+   * {@link #JOIN_MEMORY_THRESHOLD}, otherwise a {@link CoGroup}.
+   * <p>
+   * The right hand side is preferred to be held in memory. The left hand side is only held in memory if the join is
+   * an inner join, no declared fields are given, and both sides are head pipes bound to stereotypes declaring their
+   * fields. The pipes are then swapped, and a {@link Retain} restores the left then right hand side field order.
+   * <p>
+   * If neither side fits, but both sides are head pipes that are bucketed by their join fields, see
+   * {@link #isBucketJoinable(Pipe, Fields, Pipe, Fields)}, and the largest bucket of the right hand side fits, each
+   * bucket of the left hand side is joined with the same bucket of the right hand side by a HashJoin, and the results
+   * merged.
+   * <p>
+   * If the joiner is null, an {@link InnerJoin} is used.
+   *
+   * @param name           the name of the join, or null
+   * @param lhs
+   * @param lhsFields
+   * @param rhs
+   * @param rhsFields
+   * @param declaredFields
+   * @param joiner
+   * @return Pipe
+   * @see #getEstimatedSize(Pipe)
+   */
+  protected Pipe createJoin( String name, Pipe lhs, Fields lhsFields, Pipe rhs, Fields rhsFields, Fields declaredFields, Joiner joiner )
+    {
+    long threshold = getJoinMemoryThreshold();
+    boolean inner = joiner == null || joiner instanceof InnerJoin;
+
+    if( joiner == null )
+      joiner = new InnerJoin();
+
+    long rhsSize = getEstimatedSize( rhs );
+
+    if( rhsSize >= 0 && rhsSize <= threshold )
+      {
+      LOG.info( "joining: {}, holding: {}, of estimated size: {}, in memory", new Object[]{getName(), rhs.getName(), rhsSize} );
+
+      return createHashJoin( name, lhs, lhsFields, rhs, rhsFields, declaredFields, joiner );
+      }
+
+    if( rhsSize >= 0 && isBucketJoinable( lhs, lhsFields, rhs, rhsFields ) )
+      {
+      int numBuckets = getSourceStereotype( rhs.getName() ).getNumBuckets();
+      long bucketSize = getLargestBucketSize( rhs );
+
+      if( bucketSize >= 0 && bucketSize <= threshold )
+        {
+        LOG.info( "joining: {}, holding each of: {}, buckets of: {}, in memory", new Object[]{getName(), numBuckets, rhs.getName()} );
+
+        return createBucketJoin( name, lhs, lhsFields, rhs, rhsFields, declaredFields, joiner, numBuckets );
+        }
+      }
+
+    Fields joinedFields = inner && declaredFields == null ? getJoinedFields( lhs, rhs ) : null;
+    long lhsSize = joinedFields != null ? getEstimatedSize( lhs ) : -1;
+
+    if( lhsSize >= 0 && lhsSize <= threshold )
+      {
+      LOG.info( "joining: {}, holding: {}, of estimated size: {}, in memory", new Object[]{getName(), lhs.getName(), lhsSize} );
+
+      return new Retain( createHashJoin( name, rhs, rhsFields, lhs, lhsFields, null, joiner ), joinedFields );
+      }
+
+    if( name == null )
+      return new CoGroup( lhs, lhsFields, rhs, rhsFields, declaredFields, joiner );
+
+    return new CoGroup( name, lhs, lhsFields, rhs, rhsFields, declaredFields, joiner );
+    }
+
+  /**
+   * Method getLargestBucketSize returns the estimated size of the largest resource bound to the given bucketed head
+   * pipe, or -1 if the size of any is unknown.
+   */
+  private long getLargestBucketSize( Pipe pipe )
+    {
+    long largest = 0;
+
+    for( Resource<Protocol, Format, SinkMode> resource : getSourceResources( pipe.getName() ) )
+      {
+      long size = getEstimatedSize( resource );
+
+      if( size < 0 )
+        return -1;
+
+      largest = Math.max( largest, size );
+      }
+
+    return largest;
+    }
+
+  /**
+   * Method getJoinedFields returns the fields of the given head pipes' stereotypes, left then right hand side, or
+   * null if either is unknown or they share a field name.
+   */
+  private Fields getJoinedFields( Pipe lhs, Pipe rhs )
+    {
+    Fields lhsFields = getHeadFields( lhs );
+    Fields rhsFields = getHeadFields( rhs );
+
+    if( lhsFields == null || rhsFields == null )
+      return null;
+
+    for( Comparable field : rhsFields )
+      {
+      if( lhsFields.contains( new Fields( field ) ) )
+        return null;
+      }
+
+    return lhsFields.append( rhsFields );
+    }
+
+  private Fields getHeadFields( Pipe pipe )
+    {
+    if( pipe.getClass() != Pipe.class || pipe.getPrevious().length != 0 )
+      return null;
+
+    Stereotype<Protocol, Format> stereotype = getSourceStereotype( pipe.getName() );
+
+    if( stereotype == null || stereotype.getFields() == null || !stereotype.getFields().isDefined() )
+      return null;
+
+    return stereotype.getFields();
+    }
+
+  private Pipe createBucketJoin( String name, Pipe lhs, Fields lhsFields, Pipe rhs, Fields rhsFields, Fields declaredFields, Joiner joiner, int numBuckets )
+    {
+    Pipe[] joins = new Pipe[ numBuckets ];
+
+    for( int i = 0; i < numBuckets; i++ )
+      {
+      Pipe lhsBucket = new Pipe( bucketHeadName( lhs.getName(), i ) );
+      Pipe rhsBucket = new Pipe( bucketHeadName( rhs.getName(), i ) );
+
+      joins[ i ] = new HashJoin( lhsBucket, lhsFields, rhsBucket, rhsFields, declaredFields, joiner );
+      }
+
+    if( name == null )
+      return new Merge( joins );
+
+    return new Merge( name, joins );
+    }
+
+  /**
+   * Method isBucketJoinable returns true if both given pipes are head pipes, bound to stereotypes with the same
+   * number of buckets, bucketed by the given join fields, and each bound to one resource per bucket.
+   *
+   * @param lhs
+   * @param lhsFields
+   * @param rhs
+   * @param rhsFields
+   * @return boolean
+   * @see Stereotype#setBucketing(int, Fields, Fields)
+   */
+  protected boolean isBucketJoinable( Pipe lhs, Fields lhsFields, Pipe rhs, Fields rhsFields )
+    {
+    Stereotype<Protocol, Format> lhsStereotype = getBucketedStereotypeFor( lhs );
+    Stereotype<Protocol, Format> rhsStereotype = getBucketedStereotypeFor( rhs );
+
+    if( lhsStereotype == null || rhsStereotype == null )
+      return false;
+
+    if( lhsStereotype.getNumBuckets() != rhsStereotype.getNumBuckets() )
+      return false;
+
+    return lhsStereotype.getBucketFields().equals( lhsFields ) && rhsStereotype.getBucketFields().equals( rhsFields );
+    }
+
+  private Stereotype<Protocol, Format> getBucketedStereotypeFor( Pipe pipe )
+    {
+    if( pipe.getClass() != Pipe.class || pipe.getPrevious().length != 0 || !sourceResources.containsKey( pipe.getName() ) )
+      return null;
+
+    Stereotype<Protocol, Format> stereotype = getSourceStereotype( pipe.getName() );
+
+    if( stereotype == null || !stereotype.isBucketed() )
+      return null;
+
+    if( getSourceResources( pipe.getName() ).size() != stereotype.getNumBuckets() )
+      return null;
+
+    return stereotype;
+    }
+
+  static String bucketHeadName( String sourceName, int bucket )
+    {
+    return sourceName + BUCKET_SEPARATOR + bucket;
+    }
+
+  /**
+   * Method getSourceTapForHead returns a new Tap for the given head pipe name, which is either a bound source name,
+   * or the head of a single bucket of a bound source name created by a bucket join.
+   */
+  Tap getSourceTapForHead( String headName, Set<Comparable> referencedFields, List<Predicate> predicates, Set<Predicate> applied )
+    {
+    Stereotype<Protocol, Format> stereotype = getSourceStereotype( headName );
+
+    if( stereotype != null )
+      return getSourceTapFor( headName, stereotype, referencedFields, predicates, applied );
+
+    int index = headName.lastIndexOf( BUCKET_SEPARATOR );
+
+    if( index == -1 )
+      throw new IllegalArgumentException( "could not find stereotype for source name: " + headName );
+
+    String sourceName = headName.substring( 0, index );
+    int bucket = Integer.parseInt( headName.substring( index + BUCKET_SEPARATOR.length() ) );
+
+    stereotype = getSourceStereotype( sourceName );
+
+    if( stereotype == null )
+      throw new IllegalArgumentException( "could not find stereotype for source name: " + sourceName );
+
+    List<Resource<Protocol, Format, SinkMode>> resources = getSourceResources( sourceName );
+
+    return createTapFor( stereotype, resources.get( bucket ), Role.source, referencedFields, predicates, applied );
+    }
+
+  private HashJoin createHashJoin( String name, Pipe lhs, Fields lhsFields, Pipe rhs, Fields rhsFields, Fields declaredFields, Joiner joiner )
+    {
+    if( name == null )
+      return new HashJoin( lhs, lhsFields, rhs, rhsFields, declaredFields, joiner );
+
+    return new HashJoin( name, lhs, lhsFields, rhs, rhsFields, declaredFields, joiner );
+    }
+
+  /**
+   * Method getEstimatedSize returns the estimated size in bytes of all the source resources behind the heads of the
+   * given pipe, or -1 if the size of any is unknown.
+   * <p>
+   * The size recorded by the {@link cascading.bind.catalog.ResourceStatsCatalog}, if any, is used, otherwise the size
+   * currently reported by the resource.
+   *
+   * @param pipe
+   * @return long
+   */
+  protected long getEstimatedSize( Pipe pipe )
+    {
+    long size = 0;
+
+    for( Pipe head : pipe.getHeads() )
+      {
+      if( !sourceResources.containsKey( head.getName() ) || getSourceResources( head.getName() ).isEmpty() )
+        return -1;
+
+      List<Resource<Protocol, Format, SinkMode>> resources = getSourceResources( head.getName() );
+
+      for( Resource<Protocol, Format, SinkMode> resource : resources )
+        {
+        long resourceSize = getEstimatedSize( resource );
+
+        if( resourceSize < 0 )
+          return -1;
+
+        size += resourceSize;
+        }
+      }
+
+    return size;
+    }
+
+  long getEstimatedSize( Resource<Protocol, Format, SinkMode> resource )
+    {
+    ResourceStats stats = getResourceStats( resource );
+
+    if( stats != null && stats.getSize() >= 0 )
+      return stats.getSize();
+
+    if( boundTaps.containsKey( resource ) )
+      return -1;
+
+    try
+      {
+      return getSize( resource );
+      }
+    catch( IllegalStateException exception )
+      {
+      LOG.warn( "unable to estimate size of resource: {}", resource, exception );
+      return -1;
+      }
+    }
+
   /**
    * Method createFlowFrom is a convenience method that returns a new {@link Flow} instance.
    * <p>
    * After all source and sink resources have been bound, the {@link #create(Object)} implementation
    * should call this method to quickly bind source and sink taps to the given assembly head and tail
    * {@link Pipe} instances.
+   * <p>
+   * Source schemes created by a {@link ProjectingFormatHandler} are given the fields referenced by the assembly
+   * and sinks as a projection, if they can be determined.
+   * <p>
+   * The predicates of any {@link PredicateFilter} chain leading from a head pipe are handed to a
+   * {@link FilteringProtocolHandler} or {@link FilteringFormatHandler} creating that source, and only the predicates
+   * not fully applied by the source are evaluated by the filters.
+   * <p>
+   * If a {@link cascading.bind.catalog.ResourceStatsCatalog} is set, the returned Flow records the statistics of
+   * every bound resource once it successfully completes.
    *
    * @param tails
    * @return
    */
   protected Flow createFlowFrom( FlowDef flowDef, Pipe... tails )
     {
-    Map<String, Tap> sources = getSourceTapsMap( tails );
+    Flow flow = planFlowFrom( flowDef, tails );
+
+    if( getResourceStatsCatalog() != null )
+      flow.addListener( new ResourceStatsListener( this, getResourceStatsCatalog() ) );
+
+    return flow;
+    }
+
+  private Flow planFlowFrom( FlowDef flowDef, Pipe... tails )
+    {
+    Flow streamingFlow = createStreamingFlowFor( flowDef, tails );
+
+    if( streamingFlow != null )
+      return streamingFlow;
+
+    Map<String, List<List<Each>>> leadingFilters = PredicatePushdown.leadingFilters( tails );
+    Map<String, Set<Predicate>> applied = new HashMap<String, Set<Predicate>>();
     Map<String, Tap> sinks = getSinkTapsMap( tails );
+    Map<String, Tap> sources = getSourceTapsMap( FieldsProjection.referencedFields( tails, sinks.values() ), leadingFilters, applied, tails );
+
+    PredicatePushdown.markApplied( leadingFilters, applied );
 
     flowDef.addTails( tails )
       .addSources( sources )
@@ -361,6 +1352,97 @@ public abstract class FlowFactory<Protocol, Format> extends ProcessFactory<FlowD
     return getFlowConnector().connect( flowDef );
     }
 
+  /**
+   * Method createStreamingFlowFor returns a {@link ProcessFlow} copying the bytes of the source resource to the sink
+   * resource, if the given assembly is a single head {@link Pipe}, one source and one sink resource are bound with
+   * an equal {@link Scheme}, both resolve to a {@link StreamingProtocolHandler}, and {@link #getResourceConfig()}
+   * returns a configuration. Otherwise null is returned.
+   * <p>
+   * If the source and sink formats differ, the bytes are streamed through the {@link FormatTranscoder} provided by a
+   * {@link TranscodingFormatHandler} instead, if any.
+   *
+   * @param flowDef
+   * @param tails
+   * @return Flow or null
+   */
+  protected Flow createStreamingFlowFor( FlowDef flowDef, Pipe... tails )
+    {
+    if( tails == null || tails.length != 1 || tails[ 0 ].getClass() != Pipe.class || tails[ 0 ].getPrevious().length != 0 )
+      return null;
+
+    String name = tails[ 0 ].getName();
+    Stereotype<Protocol, Format> sourceStereotype = getSourceStereotype( name );
+    Stereotype<Protocol, Format> sinkStereotype = getSinkStereotype( name );
+    List<Resource<Protocol, Format, SinkMode>> sources = getSourceResources( name );
+    List<Resource<Protocol, Format, SinkMode>> sinks = getSinkResources( name );
+
+    if( sourceStereotype == null || sinkStereotype == null || sources.size() != 1 || sinks.size() != 1 )
+      return null;
+
+    Resource<Protocol, Format, SinkMode> source = sources.get( 0 );
+    Resource<Protocol, Format, SinkMode> sink = sinks.get( 0 );
+
+    if( boundTaps.containsKey( source ) || boundTaps.containsKey( sink ) || getResourceConfig() == null )
+      return null;
+
+    Format sourceFormat = getFormatFor( sourceStereotype, source );
+    Format sinkFormat = getFormatFor( sinkStereotype, sink );
+
+    if( sourceFormat == null || sinkFormat == null )
+      return null;
+
+    ProtocolHandler sourceHandler = getProtocolHandlerFor( sourceStereotype, source );
+    ProtocolHandler sinkHandler = getProtocolHandlerFor( sinkStereotype, sink );
+
+    if( !( sourceHandler instanceof StreamingProtocolHandler ) || !( sinkHandler instanceof StreamingProtocolHandler ) )
+      return null;
+
+    Scheme sourceScheme = createSchemeFor( sourceStereotype, source, Role.source, null, Collections.<Predicate>emptyList(), new HashSet<Predicate>() );
+    Scheme sinkScheme = createSchemeFor( sinkStereotype, sink, Role.sink, null, Collections.<Predicate>emptyList(), new HashSet<Predicate>() );
+    FormatTranscoder transcoder = null;
+
+    if( !sourceFormat.equals( sinkFormat ) )
+      transcoder = findTranscoderFor( sourceStereotype, source, sinkStereotype, sink );
+
+    if( transcoder == null && ( !sourceFormat.equals( sinkFormat ) || !sourceScheme.equals( sinkScheme ) ) )
+      return null;
+
+    Properties properties = getProperties() == null ? new Properties() : getProperties();
+    Tap sourceTap = sourceHandler.createTap( properties, sourceScheme, source, Role.source );
+    Tap sinkTap = sinkHandler.createTap( properties, sinkScheme, sink, Role.sink );
+
+    StreamCopyProcess process = new StreamCopyProcess( properties, getResourceConfig(), (StreamingProtocolHandler) sourceHandler, source, sourceTap, (StreamingProtocolHandler) sinkHandler, sink, sinkTap, transcoder );
+
+    return new ProcessFlow( properties, flowDef.getName(), process );
+    }
+
+  /**
+   * Method findTranscoderFor returns a {@link FormatTranscoder} from the source to the sink resource format, if both
+   * resources share the same fields, neither format is bound to a static Scheme on its {@link Stereotype}, both
+   * resources resolve to the same {@link TranscodingFormatHandler}, and it provides one.
+   */
+  private FormatTranscoder findTranscoderFor( Stereotype<Protocol, Format> sourceStereotype, Resource<Protocol, Format, SinkMode> source, Stereotype<Protocol, Format> sinkStereotype, Resource<Protocol, Format, SinkMode> sink )
+    {
+    Format sourceFormat = getFormatFor( sourceStereotype, source );
+    Format sinkFormat = getFormatFor( sinkStereotype, sink );
+
+    if( sourceStereotype.getFields() == null || !sourceStereotype.getFields().equals( sinkStereotype.getFields() ) )
+      return null;
+
+    if( sourceStereotype.getSchemeFor( sourceFormat ) != null || sinkStereotype.getSchemeFor( sinkFormat ) != null )
+      return null;
+
+    FormatHandlers<Protocol, Format> formatHandlers = getFormatHandlers( sink.getContext() );
+
+    if( getFormatHandlers( source.getContext() ) != formatHandlers )
+      return null;
+
+    Protocol sourceProtocol = getProtocolFor( sourceStereotype, source );
+    Protocol sinkProtocol = getProtocolFor( sinkStereotype, sink );
+
+    return formatHandlers.findTranscoderFor( getProperties(), sinkStereotype, sourceProtocol, sourceFormat, sinkProtocol, sinkFormat );
+    }
+
   @Override
   public Flow create()
     {
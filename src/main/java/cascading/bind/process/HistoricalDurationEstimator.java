@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Properties;
+
+import cascading.cascade.Cascade;
+import cascading.cascade.CascadeListener;
+import cascading.flow.Flow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class HistoricalDurationEstimator is a {@link DurationEstimator} that estimates the duration of a flow by the
+ * duration of its last successful run, persisted to a local file keyed by flow name.
+ * <p>
+ * Flows that have never completed are estimated to take the given default duration.
+ */
+public class HistoricalDurationEstimator implements DurationEstimator, CascadeListener
+  {
+  private static final Logger LOG = LoggerFactory.getLogger( HistoricalDurationEstimator.class );
+
+  private final File file;
+  private final long defaultDuration;
+  private final Properties durations = new Properties();
+
+  public HistoricalDurationEstimator( File file, long defaultDuration ) throws IOException
+    {
+    if( file == null )
+      throw new IllegalArgumentException( "file may not be null" );
+
+    this.file = file;
+    this.defaultDuration = defaultDuration;
+
+    if( !file.exists() )
+      return;
+
+    InputStream inputStream = new FileInputStream( file );
+
+    try
+      {
+      durations.load( inputStream );
+      }
+    finally
+      {
+      inputStream.close();
+      }
+    }
+
+  public File getFile()
+    {
+    return file;
+    }
+
+  @Override
+  public synchronized long getEstimatedDuration( ProcessFactory processFactory, List<Flow> flows )
+    {
+    long duration = 0;
+
+    for( Flow flow : flows )
+      {
+      String value = durations.getProperty( flow.getName() );
+
+      duration += value == null ? defaultDuration : Long.parseLong( value );
+      }
+
+    return duration;
+    }
+
+  @Override
+  public void onStarting( Cascade cascade )
+    {
+    }
+
+  @Override
+  public void onStopping( Cascade cascade )
+    {
+    }
+
+  @Override
+  public synchronized void onCompleted( Cascade cascade )
+    {
+    for( Flow flow : cascade.getFlows() )
+      {
+      if( flow.getFlowStats().isSuccessful() && flow.getFlowStats().getDuration() > 0 )
+        durations.setProperty( flow.getName(), Long.toString( flow.getFlowStats().getDuration() ) );
+      }
+
+    try
+      {
+      OutputStream outputStream = new FileOutputStream( file );
+
+      try
+        {
+        durations.store( outputStream, "cascading.bind flow durations" );
+        }
+      finally
+        {
+        outputStream.close();
+        }
+      }
+    catch( IOException exception )
+      {
+      LOG.warn( "unable to store flow durations: {}", file, exception );
+      }
+    }
+
+  @Override
+  public boolean onThrowable( Cascade cascade, Throwable throwable )
+    {
+    return false;
+    }
+  }
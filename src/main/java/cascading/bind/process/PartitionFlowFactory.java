@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.Map;
+
+import cascading.bind.catalog.Resource;
+import cascading.flow.Flow;
+import cascading.flow.FlowConnector;
+import cascading.flow.FlowDef;
+import cascading.pipe.Pipe;
+import cascading.tap.SinkMode;
+
+/**
+ * Class PartitionFlowFactory is a {@link FlowFactory} that plans the pipe assembly of a partitionable parent
+ * factory over a single partition of its source and sink resources.
+ * <p>
+ * Every name bound by the parent is bound to the resource at the same partition index, using the parent's
+ * stereotypes and handlers.
+ *
+ * @see FlowFactory#isPartitionable()
+ */
+class PartitionFlowFactory<Protocol, Format> extends FlowFactory<Protocol, Format>
+  {
+  private final FlowFactory<Protocol, Format> parent;
+  private final int partition;
+
+  PartitionFlowFactory( FlowFactory<Protocol, Format> parent, int partition )
+    {
+    super( parent.getProperties(), parent.getName() + "-" + partition );
+    this.parent = parent;
+    this.partition = partition;
+
+    this.protocolHandlers = parent.getProtocolHandlers();
+    this.formatHandlers = parent.getFormatHandlers();
+    this.boundTaps = parent.boundTaps;
+
+    sourceStereotypes.putAll( parent.sourceStereotypes );
+    sinkStereotypes.putAll( parent.sinkStereotypes );
+
+    for( String sourceName : parent.getSourceNames() )
+      addSourceResource( sourceName, parent.getSourceResources( sourceName ).get( partition ) );
+
+    for( String sinkName : parent.getSinkNames() )
+      addSinkResource( sinkName, parent.getSinkResources( sinkName ).get( partition ) );
+    }
+
+  public FlowFactory<Protocol, Format> getParent()
+    {
+    return parent;
+    }
+
+  public int getPartition()
+    {
+    return partition;
+    }
+
+  @Override
+  protected FlowConnector getFlowConnector()
+    {
+    return parent.getFlowConnector();
+    }
+
+  @Override
+  protected Object getResourceConfig()
+    {
+    return parent.getResourceConfig();
+    }
+
+  @Override
+  protected Pipe[] createAssembly( Map<String, Pipe> heads )
+    {
+    return parent.createAssembly( heads );
+    }
+
+  @Override
+  public long getModifiedTime( Resource<Protocol, Format, SinkMode> resource )
+    {
+    return parent.getModifiedTime( resource );
+    }
+
+  @Override
+  public Flow create( FlowDef flowDef )
+    {
+    return createFlowFrom( flowDef, createAssembly( createHeads() ) );
+    }
+  }
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import cascading.bind.catalog.handler.Predicate;
+import cascading.flow.FlowProcess;
+import cascading.operation.BaseOperation;
+import cascading.operation.Filter;
+import cascading.operation.FilterCall;
+import cascading.operation.OperationCall;
+import cascading.pipe.Each;
+import cascading.pipe.Pipe;
+import cascading.property.ConfigDef;
+import cascading.tuple.Fields;
+
+/**
+ * Class PredicateFilter is a {@link Filter} removing every tuple that does not satisfy all of its {@link Predicate}
+ * instances.
+ * <p>
+ * When a chain of PredicateFilter {@link Each} pipes directly follows a head pipe, and is the only consumer of that
+ * head, {@link FlowFactory#createFlowFrom(cascading.flow.FlowDef, Pipe...)} hands their predicates to any
+ * {@link cascading.bind.catalog.handler.FilteringProtocolHandler} or
+ * {@link cascading.bind.catalog.handler.FilteringFormatHandler} creating the source. Predicates fully applied
+ * by the source are not evaluated again.
+ * <p>
+ * A PredicateFilter is immutable, so one instance may be shared by any number of assemblies and flows. The
+ * predicates applied by the source are recorded on the {@link ConfigDef} of the planned Each pipe under the
+ * {@link #APPLIED} property.
+ * <p>
+ * Use {@link #filter(Pipe, Predicate...)} so that only the predicate fields are selected as arguments.
+ */
+public class PredicateFilter extends BaseOperation<boolean[]> implements Filter<boolean[]>
+  {
+  /**
+   * Property APPLIED holds the comma separated positions of the predicates fully applied by the source of the pipe
+   * it is set on. It is set by {@link FlowFactory} and should not be set directly.
+   */
+  public static final String APPLIED = "cascading.bind.predicate.applied";
+
+  private final List<Predicate> predicates;
+
+  /**
+   * Method filter returns a new {@link Each} applying a PredicateFilter with the given predicates to the given pipe,
+   * selecting only the predicate fields as arguments.
+   *
+   * @param pipe
+   * @param predicates
+   * @return Each
+   */
+  public static Each filter( Pipe pipe, Predicate... predicates )
+    {
+    Set<Comparable> names = new LinkedHashSet<Comparable>();
+
+    for( Predicate predicate : predicates )
+      names.add( predicate.getField() );
+
+    Fields argumentSelector = new Fields( names.toArray( new Comparable[ names.size() ] ) );
+
+    return new Each( pipe, argumentSelector, new PredicateFilter( predicates ) );
+    }
+
+  public PredicateFilter( Predicate... predicates )
+    {
+    if( predicates == null || predicates.length == 0 )
+      throw new IllegalArgumentException( "predicates may not be null or empty" );
+
+    this.predicates = new ArrayList<Predicate>( Arrays.asList( predicates ) );
+    }
+
+  public List<Predicate> getPredicates()
+    {
+    return new ArrayList<Predicate>( predicates );
+    }
+
+  /**
+   * Method setApplied records the given predicates, fully applied by the source, on the {@link ConfigDef} of the
+   * given Each pipe, so they are not evaluated by the filter of that pipe.
+   *
+   * @param each
+   * @param applied
+   */
+  static void setApplied( Each each, Collection<Predicate> applied )
+    {
+    List<Predicate> predicates = ( (PredicateFilter) each.getOperation() ).predicates;
+    StringBuilder positions = new StringBuilder();
+
+    for( int i = 0; i < predicates.size(); i++ )
+      {
+      if( !applied.contains( predicates.get( i ) ) )
+        continue;
+
+      if( positions.length() != 0 )
+        positions.append( ',' );
+
+      positions.append( i );
+      }
+
+    each.getConfigDef().setProperty( ConfigDef.Mode.REPLACE, APPLIED, positions.toString() );
+    }
+
+  private boolean[] parseApplied( String positions )
+    {
+    boolean[] skipped = new boolean[ predicates.size() ];
+
+    if( positions == null || positions.isEmpty() )
+      return skipped;
+
+    for( String position : positions.split( "," ) )
+      skipped[ Integer.parseInt( position.trim() ) ] = true;
+
+    return skipped;
+    }
+
+  @Override
+  public void prepare( FlowProcess flowProcess, OperationCall<boolean[]> operationCall )
+    {
+    Object positions = flowProcess.getProperty( APPLIED );
+
+    operationCall.setContext( parseApplied( positions == null ? null : positions.toString() ) );
+    }
+
+  @Override
+  public boolean isRemove( FlowProcess flowProcess, FilterCall<boolean[]> filterCall )
+    {
+    boolean[] skipped = filterCall.getContext();
+
+    for( int i = 0; i < predicates.size(); i++ )
+      {
+      if( ( skipped == null || !skipped[ i ] ) && !predicates.get( i ).matches( filterCall.getArguments() ) )
+        return true;
+      }
+
+    return false;
+    }
+
+  @Override
+  public boolean equals( Object object )
+    {
+    if( this == object )
+      return true;
+    if( !( object instanceof PredicateFilter ) )
+      return false;
+    if( !super.equals( object ) )
+      return false;
+
+    PredicateFilter that = (PredicateFilter) object;
+
+    return predicates.equals( that.predicates );
+    }
+
+  @Override
+  public int hashCode()
+    {
+    int result = super.hashCode();
+    result = 31 * result + predicates.hashCode();
+    return result;
+    }
+  }
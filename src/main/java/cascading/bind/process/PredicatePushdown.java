@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import cascading.bind.catalog.handler.Predicate;
+import cascading.pipe.Each;
+import cascading.pipe.Pipe;
+
+/**
+ * Class PredicatePushdown finds the leading {@link PredicateFilter} chains of a pipe assembly, whose predicates may
+ * be evaluated by the source of the head pipe they follow.
+ * <p>
+ * A chain is leading only if each of its pipes is the sole consumer of the previous one, so every tuple read from
+ * the source passes through the whole chain. As every head pipe with the same name reads the same source, only the
+ * predicates common to the chains of all those heads may be pushed to it.
+ */
+class PredicatePushdown
+  {
+  private PredicatePushdown()
+    {
+    }
+
+  /**
+   * Method leadingFilters returns the leading PredicateFilter chain of every head pipe of the given tails, grouped
+   * by head name. A head without any leading filter has an empty chain.
+   *
+   * @param tails
+   * @return Map of head name to the chains of PredicateFilter Each pipes of every head with that name
+   */
+  static Map<String, List<List<Each>>> leadingFilters( Pipe[] tails )
+    {
+    Map<Pipe, List<Pipe>> consumers = new IdentityHashMap<Pipe, List<Pipe>>();
+    List<Pipe> heads = new ArrayList<Pipe>();
+
+    addConsumers( consumers, heads, Collections.newSetFromMap( new IdentityHashMap<Pipe, Boolean>() ), tails );
+
+    Map<String, List<List<Each>>> filters = new HashMap<String, List<List<Each>>>();
+
+    for( Pipe head : heads )
+      {
+      List<Each> chain = new ArrayList<Each>();
+      Pipe current = head;
+
+      while( consumers.containsKey( current ) && consumers.get( current ).size() == 1 )
+        {
+        Pipe next = consumers.get( current ).get( 0 );
+
+        if( !( next instanceof Each ) || !( ( (Each) next ).getOperation() instanceof PredicateFilter ) )
+          break;
+
+        chain.add( (Each) next );
+        current = next;
+        }
+
+      if( !filters.containsKey( head.getName() ) )
+        filters.put( head.getName(), new ArrayList<List<Each>>() );
+
+      filters.get( head.getName() ).add( chain );
+      }
+
+    return filters;
+    }
+
+  /**
+   * Method predicatesFor returns the predicates found in every one of the given chains, in the order of the
+   * first chain.
+   *
+   * @param chains
+   * @return List of Predicate
+   */
+  static List<Predicate> predicatesFor( List<List<Each>> chains )
+    {
+    List<Predicate> predicates = new ArrayList<Predicate>();
+
+    if( chains == null || chains.isEmpty() )
+      return predicates;
+
+    predicates.addAll( predicatesOf( chains.get( 0 ) ) );
+
+    for( int i = 1; i < chains.size(); i++ )
+      predicates.retainAll( predicatesOf( chains.get( i ) ) );
+
+    return predicates;
+    }
+
+  private static List<Predicate> predicatesOf( List<Each> chain )
+    {
+    List<Predicate> predicates = new ArrayList<Predicate>();
+
+    for( Each each : chain )
+      {
+      for( Predicate predicate : ( (PredicateFilter) each.getOperation() ).getPredicates() )
+        {
+        if( !predicates.contains( predicate ) )
+          predicates.add( predicate );
+        }
+      }
+
+    return predicates;
+    }
+
+  /**
+   * Method markApplied records the predicates fully applied by each source, keyed by source name, on every Each
+   * pipe of the leading chains following that source.
+   *
+   * @param leadingFilters
+   * @param appliedBySource
+   */
+  static void markApplied( Map<String, List<List<Each>>> leadingFilters, Map<String, Set<Predicate>> appliedBySource )
+    {
+    for( Map.Entry<String, List<List<Each>>> entry : leadingFilters.entrySet() )
+      {
+      Set<Predicate> applied = appliedBySource.get( entry.getKey() );
+
+      for( List<Each> chain : entry.getValue() )
+        {
+        for( Each each : chain )
+          PredicateFilter.setApplied( each, applied == null ? Collections.<Predicate>emptySet() : applied );
+        }
+      }
+    }
+
+  private static void addConsumers( Map<Pipe, List<Pipe>> consumers, List<Pipe> heads, Set<Pipe> visited, Pipe[] pipes )
+    {
+    for( Pipe pipe : pipes )
+      {
+      if( !visited.add( pipe ) )
+        continue;
+
+      Pipe[] previous = pipe.getPrevious();
+
+      if( previous.length == 0 )
+        heads.add( pipe );
+
+      for( Pipe parent : previous )
+        {
+        if( !consumers.containsKey( parent ) )
+          consumers.put( parent, new ArrayList<Pipe>() );
+
+        consumers.get( parent ).add( pipe );
+        }
+
+      addConsumers( consumers, heads, visited, previous );
+      }
+    }
+  }
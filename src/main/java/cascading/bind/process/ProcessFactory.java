@@ -31,6 +31,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
+import cascading.bind.catalog.ResourceStats;
+import cascading.bind.catalog.ResourceStatsCatalog;
 import cascading.bind.catalog.Stereotype;
 import cascading.bind.factory.Factory;
 
@@ -48,6 +50,8 @@ public abstract class ProcessFactory<Def, Process, Resource> extends Factory<Def
   final Map<String, List<Resource>> sourceResources = new HashMap<String, List<Resource>>();
   final Map<String, List<Resource>> sinkResources = new HashMap<String, List<Resource>>();
 
+  private ResourceStatsCatalog resourceStatsCatalog;
+
   protected ProcessFactory( Properties properties )
     {
     super( properties );
@@ -116,7 +120,7 @@ public abstract class ProcessFactory<Def, Process, Resource> extends Factory<Def
    * @param sourceName
    * @param resources
    */
-  protected void addSourceResource( String sourceName, Resource... resources )
+  protected synchronized void addSourceResource( String sourceName, Resource... resources )
     {
     if( resources == null || resources.length == 0 )
       return;
@@ -135,7 +139,7 @@ public abstract class ProcessFactory<Def, Process, Resource> extends Factory<Def
    * @param sourceName
    * @return
    */
-  protected List<Resource> getSourceResources( String sourceName )
+  protected synchronized List<Resource> getSourceResources( String sourceName )
     {
     List<Resource> resourceList = sourceResources.get( sourceName );
 
@@ -154,7 +158,7 @@ public abstract class ProcessFactory<Def, Process, Resource> extends Factory<Def
    *
    * @return Collection of Resource instances
    */
-  public Collection<Resource> getAllSourceResources()
+  public synchronized Collection<Resource> getAllSourceResources()
     {
     Set<Resource> set = new HashSet<Resource>();
 
@@ -164,18 +168,18 @@ public abstract class ProcessFactory<Def, Process, Resource> extends Factory<Def
     return set;
     }
 
-  public boolean replaceSourceResource( Resource from, Resource to )
+  public synchronized boolean replaceSourceResource( Resource from, Resource to )
     {
     return replaceResourceIn( from, to, sourceResources );
     }
 
   /** Method clearSourceResources removes all bindings for all names. */
-  protected void clearSourceResources()
+  protected synchronized void clearSourceResources()
     {
     sourceResources.clear();
     }
 
-  public Stereotype getSourceStereotypeFor( Resource resource )
+  public synchronized Stereotype getSourceStereotypeFor( Resource resource )
     {
     return getStereotypeFor( resource, sourceResources, sourceStereotypes );
     }
@@ -268,6 +272,52 @@ public abstract class ProcessFactory<Def, Process, Resource> extends Factory<Def
     return found;
     }
 
+  /**
+   * Method replaceSourceResources replaces the given resources, wherever all of them are bound to the same source
+   * name, with the given replacements, in place of the first of them. Names bound to only some of the given
+   * resources are left unchanged.
+   * <p>
+   * Each binding is replaced as a whole, so it is never observed partially replaced. The source bindings are only
+   * read while holding this factory's lock, so a replacement made by a running flow is visible to later plans.
+   *
+   * @param from
+   * @param to
+   * @return true if any binding was replaced
+   */
+  public synchronized boolean replaceSourceResources( Collection<Resource> from, Collection<Resource> to )
+    {
+    boolean found = false;
+
+    for( Map.Entry<String, List<Resource>> entry : sourceResources.entrySet() )
+      {
+      List<Resource> resources = entry.getValue();
+
+      if( from.isEmpty() || !resources.containsAll( from ) )
+        continue;
+
+      List<Resource> replaced = new ArrayList<Resource>();
+      boolean inserted = false;
+
+      for( Resource resource : resources )
+        {
+        if( !from.contains( resource ) )
+          {
+          replaced.add( resource );
+          }
+        else if( !inserted )
+          {
+          replaced.addAll( to );
+          inserted = true;
+          }
+        }
+
+      entry.setValue( replaced );
+      found = true;
+      }
+
+    return found;
+    }
+
   public Stereotype getSinkStereotypeFor( Resource resource )
     {
     return getStereotypeFor( resource, sinkResources, sinkStereotypes );
@@ -292,9 +342,68 @@ public abstract class ProcessFactory<Def, Process, Resource> extends Factory<Def
     return stereotypes.get( name );
     }
 
-  protected Collection<String> getSourceNames()
+  /**
+   * Method getModifiedTime returns the time the given source or sink resource was last modified.
+   * <p>
+   * Returns 0 if the resource does not exist, and -1 if the modified time cannot be determined, the default.
+   *
+   * @param resource
+   * @return long
+   */
+  public long getModifiedTime( Resource resource )
+    {
+    return -1;
+    }
+
+  /**
+   * Method getSize returns the size in bytes of the given source or sink resource.
+   * <p>
+   * Returns -1 if the size cannot be determined, the default.
+   *
+   * @param resource
+   * @return long
+   */
+  public long getSize( Resource resource )
+    {
+    return -1;
+    }
+
+  public ResourceStatsCatalog getResourceStatsCatalog()
+    {
+    return resourceStatsCatalog;
+    }
+
+  /**
+   * Method setResourceStatsCatalog sets the {@link ResourceStatsCatalog} recording the statistics of this factory's
+   * resources after every successful run, and consulted by {@link #getResourceStats(Object)}.
+   * <p>
+   * A {@link CascadeFactory} hands its own catalog to every process factory it plans that has none set.
+   *
+   * @param resourceStatsCatalog
+   */
+  public void setResourceStatsCatalog( ResourceStatsCatalog resourceStatsCatalog )
+    {
+    this.resourceStatsCatalog = resourceStatsCatalog;
+    }
+
+  /**
+   * Method getResourceStats returns the statistics last recorded for the given resource, or null if none were
+   * recorded or no {@link ResourceStatsCatalog} is set.
+   *
+   * @param resource
+   * @return ResourceStats or null
+   */
+  public ResourceStats getResourceStats( Resource resource )
+    {
+    if( resourceStatsCatalog == null || !( resource instanceof cascading.bind.catalog.Resource ) )
+      return null;
+
+    return resourceStatsCatalog.getStats( (cascading.bind.catalog.Resource) resource );
+    }
+
+  protected synchronized Collection<String> getSourceNames()
     {
-    return sourceResources.keySet();
+    return new ArrayList<String>( sourceResources.keySet() );
     }
 
   protected Collection<String> getSinkNames()
@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import cascading.bind.catalog.Resource;
+import org.jgrapht.Graphs;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.SimpleDirectedGraph;
+import org.jgrapht.traverse.TopologicalOrderIterator;
+
+/**
+ * Class ResourceGraph is a bipartite dependency graph of {@link Resource} and {@link ProcessFactory} vertices.
+ * <p>
+ * Every source resource of a process factory has an edge to the factory, and the factory has an edge to every
+ * one of its sink resources. So the size of the graph grows linearly with the number of resources bound to each
+ * factory, and any number of factories may read or write the same resources.
+ * <p>
+ * Resource vertices are additionally indexed by identifier so that exact and prefix lookups do not
+ * require a scan of the graph.
+ */
+class ResourceGraph
+  {
+  private final SimpleDirectedGraph<Object, DefaultEdge> graph = new SimpleDirectedGraph<Object, DefaultEdge>( DefaultEdge.class );
+  private final NavigableMap<String, Set<Resource>> identifierIndex = new TreeMap<String, Set<Resource>>();
+
+  ResourceGraph()
+    {
+    }
+
+  ResourceGraph( Collection<? extends ProcessFactory> processFactories )
+    {
+    for( ProcessFactory processFactory : processFactories )
+      insertProcessFactory( processFactory );
+    }
+
+  boolean containsProcessFactory( ProcessFactory processFactory )
+    {
+    return graph.containsVertex( processFactory );
+    }
+
+  boolean containsResource( Resource resource )
+    {
+    return graph.containsVertex( resource );
+    }
+
+  void insertProcessFactory( ProcessFactory<?, ?, Resource> processFactory )
+    {
+    if( !graph.addVertex( processFactory ) )
+      throw new IllegalStateException( "process factory already in graph: " + processFactory );
+
+    for( Resource resource : processFactory.getAllSourceResources() )
+      {
+      insertResource( resource );
+      graph.addEdge( resource, processFactory );
+      }
+
+    for( Resource resource : processFactory.getAllSinkResources() )
+      {
+      insertResource( resource );
+      graph.addEdge( processFactory, resource );
+      }
+    }
+
+  void removeProcessFactory( ProcessFactory<?, ?, Resource> processFactory )
+    {
+    if( !graph.containsVertex( processFactory ) )
+      return;
+
+    Set<Resource> resources = new HashSet<Resource>();
+
+    for( Object vertex : Graphs.neighborListOf( graph, processFactory ) )
+      resources.add( (Resource) vertex );
+
+    graph.removeVertex( processFactory );
+
+    for( Resource resource : resources )
+      {
+      if( graph.edgesOf( resource ).isEmpty() )
+        removeResource( resource );
+      }
+    }
+
+  private void insertResource( Resource resource )
+    {
+    if( !graph.addVertex( resource ) || resource.getIdentifier() == null )
+      return;
+
+    Set<Resource> resources = identifierIndex.get( resource.getIdentifier() );
+
+    if( resources == null )
+      {
+      resources = new HashSet<Resource>();
+      identifierIndex.put( resource.getIdentifier(), resources );
+      }
+
+    resources.add( resource );
+    }
+
+  private void removeResource( Resource resource )
+    {
+    graph.removeVertex( resource );
+
+    if( resource.getIdentifier() == null )
+      return;
+
+    Set<Resource> resources = identifierIndex.get( resource.getIdentifier() );
+
+    if( resources == null )
+      return;
+
+    resources.remove( resource );
+
+    if( resources.isEmpty() )
+      identifierIndex.remove( resource.getIdentifier() );
+    }
+
+  Set<Resource> getAllResources()
+    {
+    Set<Resource> resources = new HashSet<Resource>();
+
+    for( Object vertex : graph.vertexSet() )
+      {
+      if( vertex instanceof Resource )
+        resources.add( (Resource) vertex );
+      }
+
+    return resources;
+    }
+
+  Set<Resource> getResourcesWith( String identifier )
+    {
+    Set<Resource> resources = new HashSet<Resource>();
+
+    if( identifier == null )
+      return resources;
+
+    Set<Resource> found = identifierIndex.get( identifier );
+
+    if( found != null )
+      resources.addAll( found );
+
+    return resources;
+    }
+
+  Set<Resource> getResourcesUnder( String prefix )
+    {
+    Set<Resource> resources = new HashSet<Resource>();
+
+    if( prefix == null )
+      return resources;
+
+    for( Map.Entry<String, Set<Resource>> entry : identifierIndex.tailMap( prefix, true ).entrySet() )
+      {
+      if( !entry.getKey().startsWith( prefix ) )
+        break;
+
+      resources.addAll( entry.getValue() );
+      }
+
+    return resources;
+    }
+
+  /**
+   * Method getSourceDependenciesOn returns all process factories reading the given resource.
+   *
+   * @param resource
+   * @return Set of ProcessFactory instances
+   */
+  Set<ProcessFactory> getSourceDependenciesOn( Resource resource )
+    {
+    Set<ProcessFactory> factories = new HashSet<ProcessFactory>();
+
+    if( !graph.containsVertex( resource ) )
+      return factories;
+
+    for( DefaultEdge edge : graph.outgoingEdgesOf( resource ) )
+      factories.add( (ProcessFactory) graph.getEdgeTarget( edge ) );
+
+    return factories;
+    }
+
+  /**
+   * Method getSinkDependenciesOn returns all process factories writing the given resource.
+   *
+   * @param resource
+   * @return Set of ProcessFactory instances
+   */
+  Set<ProcessFactory> getSinkDependenciesOn( Resource resource )
+    {
+    Set<ProcessFactory> factories = new HashSet<ProcessFactory>();
+
+    if( !graph.containsVertex( resource ) )
+      return factories;
+
+    for( DefaultEdge edge : graph.incomingEdgesOf( resource ) )
+      factories.add( (ProcessFactory) graph.getEdgeSource( edge ) );
+
+    return factories;
+    }
+
+  /**
+   * Method getDownstreamOf returns all process factories reading a sink resource of the given process factory.
+   *
+   * @param processFactory
+   * @return Set of ProcessFactory instances
+   */
+  Set<ProcessFactory> getDownstreamOf( ProcessFactory processFactory )
+    {
+    Set<ProcessFactory> factories = new HashSet<ProcessFactory>();
+
+    if( !graph.containsVertex( processFactory ) )
+      return factories;
+
+    for( DefaultEdge edge : graph.outgoingEdgesOf( processFactory ) )
+      factories.addAll( getSourceDependenciesOn( (Resource) graph.getEdgeTarget( edge ) ) );
+
+    return factories;
+    }
+
+  /**
+   * Method getTopologicalOrder returns all process factories ordered so that every factory follows the
+   * factories writing its source resources.
+   *
+   * @return List of ProcessFactory instances
+   */
+  List<ProcessFactory> getTopologicalOrder()
+    {
+    List<ProcessFactory> factories = new ArrayList<ProcessFactory>();
+    TopologicalOrderIterator<Object, DefaultEdge> iterator = new TopologicalOrderIterator<Object, DefaultEdge>( graph );
+
+    while( iterator.hasNext() )
+      {
+      Object vertex = iterator.next();
+
+      if( vertex instanceof ProcessFactory )
+        factories.add( (ProcessFactory) vertex );
+      }
+
+    return factories;
+    }
+  }
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.ResourceStats;
+import cascading.bind.catalog.ResourceStatsCatalog;
+import cascading.flow.Flow;
+import cascading.flow.FlowListener;
+import cascading.flow.SliceCounters;
+import cascading.stats.FlowStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Class ResourceStatsListener is a {@link FlowListener} recording the {@link ResourceStats} of every resource bound
+ * to a {@link ProcessFactory} in a {@link ResourceStatsCatalog}, once a flow it created successfully completes.
+ * <p>
+ * Sizes and modified times are read from each resource. Records and rates are taken from the flow counters, so are
+ * only recorded for a resource that is the flow's only source, or only sink.
+ */
+public class ResourceStatsListener implements FlowListener
+  {
+  private static final Logger LOG = LoggerFactory.getLogger( ResourceStatsListener.class );
+
+  private final ProcessFactory<?, ?, Resource> processFactory;
+  private final ResourceStatsCatalog resourceStatsCatalog;
+
+  public ResourceStatsListener( ProcessFactory processFactory, ResourceStatsCatalog resourceStatsCatalog )
+    {
+    if( processFactory == null )
+      throw new IllegalArgumentException( "processFactory may not be null" );
+
+    if( resourceStatsCatalog == null )
+      throw new IllegalArgumentException( "resourceStatsCatalog may not be null" );
+
+    this.processFactory = processFactory;
+    this.resourceStatsCatalog = resourceStatsCatalog;
+    }
+
+  @Override
+  public void onStarting( Flow flow )
+    {
+    }
+
+  @Override
+  public void onStopping( Flow flow )
+    {
+    }
+
+  @Override
+  public void onCompleted( Flow flow )
+    {
+    FlowStats flowStats = flow.getFlowStats();
+
+    if( !flowStats.isSuccessful() )
+      return;
+
+    Collection<Resource> sources = processFactory.getAllSourceResources();
+    Collection<Resource> sinks = processFactory.getAllSinkResources();
+
+    boolean singleSource = sources.size() == 1 && flow.getSourcesCollection().size() == 1;
+    boolean singleSink = sinks.size() == 1 && flow.getSinksCollection().size() == 1;
+
+    long read = flowStats.getCounterValue( SliceCounters.Tuples_Read );
+    long readDuration = durationOf( flowStats, SliceCounters.Read_Duration );
+    long written = flowStats.getCounterValue( SliceCounters.Tuples_Written );
+    long writeDuration = durationOf( flowStats, SliceCounters.Write_Duration );
+
+    for( Resource source : sources )
+      {
+      long size = getSize( source );
+      long records = singleSource ? recordsFor( read, size ) : -1;
+
+      resourceStatsCatalog.record( source, new ResourceStats( size, records, rateFor( records, readDuration ), -1, getModifiedTime( source ) ) );
+      }
+
+    for( Resource sink : sinks )
+      {
+      long size = getSize( sink );
+      long records = singleSink ? recordsFor( written, size ) : -1;
+
+      resourceStatsCatalog.record( sink, new ResourceStats( size, records, -1, rateFor( records, writeDuration ), getModifiedTime( sink ) ) );
+      }
+
+    try
+      {
+      resourceStatsCatalog.store();
+      }
+    catch( IOException exception )
+      {
+      LOG.warn( "unable to store resource statistics: {}", resourceStatsCatalog.getFile(), exception );
+      }
+    }
+
+  @Override
+  public boolean onThrowable( Flow flow, Throwable throwable )
+    {
+    return false;
+    }
+
+  private long durationOf( FlowStats flowStats, Enum counter )
+    {
+    long duration = flowStats.getCounterValue( counter );
+
+    return duration > 0 ? duration : flowStats.getDuration();
+    }
+
+  /** A flow that reports no tuples, like a byte copy, but moved bytes, has an unknown number of records. */
+  private long recordsFor( long tuples, long size )
+    {
+    if( tuples == 0 && size != 0 )
+      return -1;
+
+    return tuples;
+    }
+
+  private double rateFor( long records, long duration )
+    {
+    if( records < 0 || duration <= 0 )
+      return -1;
+
+    return records * 1000.0 / duration;
+    }
+
+  private long getSize( Resource resource )
+    {
+    try
+      {
+      return processFactory.getSize( resource );
+      }
+    catch( IllegalStateException exception )
+      {
+      LOG.warn( "unable to read size of resource: {}", resource, exception );
+      return -1;
+      }
+    }
+
+  private long getModifiedTime( Resource resource )
+    {
+    try
+      {
+      long modifiedTime = processFactory.getModifiedTime( resource );
+
+      return modifiedTime > 0 ? modifiedTime : -1;
+      }
+    catch( IllegalStateException exception )
+      {
+      LOG.warn( "unable to read modified time of resource: {}", resource, exception );
+      return -1;
+      }
+    }
+  }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Properties;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.handler.FormatTranscoder;
+import cascading.bind.catalog.handler.StreamingProtocolHandler;
+import cascading.tap.Tap;
+import cascading.tap.TapException;
+import riffle.process.DependencyIncoming;
+import riffle.process.DependencyOutgoing;
+import riffle.process.ProcessComplete;
+import riffle.process.ProcessStart;
+import riffle.process.ProcessStop;
+
+/**
+ * Class StreamCopyProcess is a riffle process, run by a {@link cascading.flow.process.ProcessFlow}, that copies
+ * the bytes of a source resource to a sink resource through the channels of their {@link StreamingProtocolHandler}.
+ * If a {@link FormatTranscoder} is given, the bytes are transcoded instead of copied.
+ * <p>
+ * The given Tap instances are only reported as the process dependencies and used to test for an existing sink.
+ */
+@riffle.process.Process
+class StreamCopyProcess
+  {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Properties properties;
+  private final Object config;
+  private final StreamingProtocolHandler sourceHandler;
+  private final Resource source;
+  private final Tap sourceTap;
+  private final StreamingProtocolHandler sinkHandler;
+  private final Resource sink;
+  private final Tap sinkTap;
+  private final FormatTranscoder transcoder;
+
+  StreamCopyProcess( Properties properties, Object config, StreamingProtocolHandler sourceHandler, Resource source, Tap sourceTap, StreamingProtocolHandler sinkHandler, Resource sink, Tap sinkTap, FormatTranscoder transcoder )
+    {
+    this.properties = properties;
+    this.config = config;
+    this.sourceHandler = sourceHandler;
+    this.source = source;
+    this.sourceTap = sourceTap;
+    this.sinkHandler = sinkHandler;
+    this.sink = sink;
+    this.sinkTap = sinkTap;
+    this.transcoder = transcoder;
+    }
+
+  @DependencyIncoming
+  public Collection getIncoming()
+    {
+    return Collections.singletonList( sourceTap );
+    }
+
+  @DependencyOutgoing
+  public Collection getOutgoing()
+    {
+    return Collections.singletonList( sinkTap );
+    }
+
+  @ProcessStart
+  public void start()
+    {
+    }
+
+  @ProcessStop
+  public void stop()
+    {
+    }
+
+  @ProcessComplete
+  public void complete() throws IOException
+    {
+    if( sinkTap.isKeep() && sinkTap.resourceExists( config ) )
+      throw new TapException( "resource exists and sink mode is KEEP: " + sinkTap.getIdentifier() );
+
+    ReadableByteChannel input = sourceHandler.openChannelForRead( properties, source );
+
+    try
+      {
+      WritableByteChannel output = sinkHandler.openChannelForWrite( properties, sink );
+
+      try
+        {
+        if( transcoder != null )
+          transcoder.transcode( input, output );
+        else
+          copy( input, output );
+        }
+      finally
+        {
+        output.close();
+        }
+      }
+    finally
+      {
+      input.close();
+      }
+    }
+
+  static long copy( ReadableByteChannel input, WritableByteChannel output ) throws IOException
+    {
+    long total = 0;
+
+    if( input instanceof FileChannel )
+      {
+      FileChannel channel = (FileChannel) input;
+      long size = channel.size();
+
+      while( total < size )
+        {
+        long transferred = channel.transferTo( channel.position() + total, size - total, output );
+
+        // the source was truncated while copying
+        if( transferred <= 0 )
+          throw new IOException( "copied " + total + " of " + size + " bytes, source ended early" );
+
+        total += transferred;
+        }
+
+      return total;
+      }
+
+    if( output instanceof FileChannel )
+      {
+      FileChannel channel = (FileChannel) output;
+      long transferred;
+
+      while( ( transferred = channel.transferFrom( input, channel.position() + total, BUFFER_SIZE ) ) > 0 )
+        total += transferred;
+
+      return total;
+      }
+
+    ByteBuffer buffer = ByteBuffer.allocateDirect( BUFFER_SIZE );
+
+    while( input.read( buffer ) != -1 )
+      {
+      buffer.flip();
+
+      while( buffer.hasRemaining() )
+        total += output.write( buffer );
+
+      buffer.clear();
+      }
+
+    return total;
+    }
+  }
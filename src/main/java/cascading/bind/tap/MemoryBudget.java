@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.tap;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class MemoryBudget is an estimated number of bytes shared by every {@link MemoryTap} created with it. Each
+ * MemoryTap reserves bytes for the tuples it holds in memory, and releases them when its resource is deleted.
+ */
+public class MemoryBudget implements Serializable
+  {
+  private final long limit;
+  private final AtomicLong reserved = new AtomicLong();
+
+  public MemoryBudget( long limit )
+    {
+    this.limit = limit;
+    }
+
+  public long getLimit()
+    {
+    return limit;
+    }
+
+  public long getReserved()
+    {
+    return reserved.get();
+    }
+
+  /**
+   * Method reserve reserves the given number of bytes, if doing so does not exceed the limit.
+   *
+   * @param bytes
+   * @return true if reserved
+   */
+  public boolean reserve( long bytes )
+    {
+    while( true )
+      {
+      long current = reserved.get();
+
+      if( current + bytes > limit )
+        return false;
+
+      if( reserved.compareAndSet( current, current + bytes ) )
+        return true;
+      }
+    }
+
+  /**
+   * Method release returns the given number of previously reserved bytes to this budget.
+   *
+   * @param bytes
+   */
+  public void release( long bytes )
+    {
+    reserved.addAndGet( -bytes );
+    }
+
+  @Override
+  public String toString()
+    {
+    return "MemoryBudget{" + "limit=" + limit + ", reserved=" + reserved + '}';
+    }
+  }
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.tap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+
+import cascading.flow.FlowProcess;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tap.TapException;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryChainIterator;
+import cascading.tuple.TupleEntryCollector;
+import cascading.tuple.TupleEntryIterator;
+
+/**
+ * Class MemoryTap is a Cascading local mode {@link Tap} that holds the tuples written to it in memory, so they may
+ * be read back by a later {@link cascading.flow.Flow} without being written to storage.
+ * <p>
+ * Tuples are held in memory until their estimated size exceeds the given memory budget, any further tuples are
+ * spilled to a temporary file in the given spill directory, using Java serialization. A {@link MemoryBudget} may be
+ * shared by many MemoryTap instances, memory is returned to it, and the spill file removed, when the resource is
+ * deleted.
+ * <p>
+ * A MemoryTap takes its {@link cascading.scheme.Scheme} and identifier from the Tap it replaces, and always reads
+ * back the sink fields of that Scheme. The same instance must be used by the writing and reading flows.
+ */
+public class MemoryTap extends Tap<Properties, Object, Object>
+  {
+  private static final int RESET_INTERVAL = 1000;
+
+  private final String identifier;
+  private final MemoryBudget memoryBudget;
+  private final File spillDirectory;
+
+  private List<Tuple> tuples = new ArrayList<Tuple>();
+  private long reserved = 0;
+  private File spillFile;
+  private long spillCount = 0;
+  private long modifiedTime = 0;
+
+  public MemoryTap( Tap tap, long memoryBudget, File spillDirectory )
+    {
+    this( tap, new MemoryBudget( memoryBudget ), spillDirectory );
+    }
+
+  public MemoryTap( Tap tap, MemoryBudget memoryBudget, File spillDirectory )
+    {
+    super( tap.getScheme(), SinkMode.REPLACE );
+
+    if( memoryBudget == null )
+      throw new IllegalArgumentException( "memoryBudget may not be null" );
+
+    this.identifier = tap.getIdentifier();
+    this.memoryBudget = memoryBudget;
+    this.spillDirectory = spillDirectory;
+    }
+
+  @Override
+  public String getIdentifier()
+    {
+    return identifier;
+    }
+
+  public MemoryBudget getMemoryBudget()
+    {
+    return memoryBudget;
+    }
+
+  @Override
+  public Fields getSourceFields()
+    {
+    return getSinkFields();
+    }
+
+  /**
+   * Method isSpilled returns true if the tuples written exceeded the memory budget.
+   *
+   * @return boolean
+   */
+  public synchronized boolean isSpilled()
+    {
+    return spillCount != 0;
+    }
+
+  @Override
+  public synchronized TupleEntryIterator openForRead( FlowProcess<? extends Properties> flowProcess, Object input ) throws IOException
+    {
+    if( modifiedTime == 0 )
+      throw new TapException( "memory resource has not been written: " + getIdentifier() );
+
+    Iterator<Tuple> memory = new ArrayList<Tuple>( tuples ).iterator();
+
+    if( spillCount == 0 )
+      return new TupleEntryChainIterator( getSourceFields(), memory );
+
+    return new TupleEntryChainIterator( getSourceFields(), memory, new SpillIterator( spillFile, spillCount ) );
+    }
+
+  @Override
+  public synchronized TupleEntryCollector openForWrite( FlowProcess<? extends Properties> flowProcess, Object output ) throws IOException
+    {
+    deleteResource( flowProcess.getConfig() );
+
+    return new MemoryCollector( getSinkFields() );
+    }
+
+  @Override
+  public synchronized boolean createResource( Properties conf ) throws IOException
+    {
+    return true;
+    }
+
+  @Override
+  public synchronized boolean deleteResource( Properties conf ) throws IOException
+    {
+    tuples = new ArrayList<Tuple>();
+    modifiedTime = 0;
+    spillCount = 0;
+
+    memoryBudget.release( reserved );
+    reserved = 0;
+
+    if( spillFile != null && !spillFile.delete() && spillFile.exists() )
+      throw new IOException( "unable to delete spill file: " + spillFile );
+
+    spillFile = null;
+
+    return true;
+    }
+
+  @Override
+  public synchronized boolean resourceExists( Properties conf ) throws IOException
+    {
+    return modifiedTime != 0;
+    }
+
+  @Override
+  public synchronized long getModifiedTime( Properties conf ) throws IOException
+    {
+    return modifiedTime;
+    }
+
+  private synchronized void commit( List<Tuple> tuples, long reserved, File spillFile, long spillCount )
+    {
+    this.tuples = tuples;
+    this.reserved = reserved;
+    this.spillFile = spillFile;
+    this.spillCount = spillCount;
+    this.modifiedTime = System.currentTimeMillis();
+    }
+
+  /**
+   * Method estimateSize returns a rough estimate of the heap used by the given Tuple.
+   *
+   * @param tuple
+   * @return long
+   */
+  protected long estimateSize( Tuple tuple )
+    {
+    long size = 32;
+
+    for( int i = 0; i < tuple.size(); i++ )
+      {
+      Object value = tuple.getObject( i );
+
+      if( value instanceof String )
+        size += 40 + 2 * ( (String) value ).length();
+      else
+        size += 24;
+      }
+
+    return size;
+    }
+
+  private class MemoryCollector extends TupleEntryCollector
+    {
+    private final List<Tuple> buffer = new ArrayList<Tuple>();
+    private long size = 0;
+    private File file;
+    private ObjectOutputStream spill;
+    private long count = 0;
+
+    MemoryCollector( Fields declared )
+      {
+      super( declared );
+      }
+
+    @Override
+    protected void collect( TupleEntry tupleEntry ) throws IOException
+      {
+      Fields fields = getSinkFields();
+      Tuple tuple = fields.isAll() || fields.isUnknown() ? tupleEntry.getTupleCopy() : tupleEntry.selectTupleCopy( fields );
+
+      if( spill == null )
+        {
+        long estimate = estimateSize( tuple );
+
+        if( memoryBudget.reserve( estimate ) )
+          {
+          size += estimate;
+          buffer.add( tuple );
+          return;
+          }
+
+        file = File.createTempFile( "memorytap", ".spill", spillDirectory );
+        file.deleteOnExit();
+        spill = new ObjectOutputStream( new BufferedOutputStream( new FileOutputStream( file ) ) );
+        }
+
+      spill.writeObject( tuple );
+
+      if( ++count % RESET_INTERVAL == 0 )
+        spill.reset();
+      }
+
+    @Override
+    public void close()
+      {
+      super.close();
+
+      try
+        {
+        if( spill != null )
+          spill.close();
+        }
+      catch( IOException exception )
+        {
+        throw new TapException( "unable to close spill file: " + file, exception );
+        }
+
+      commit( buffer, size, file, count );
+      }
+    }
+
+  private static class SpillIterator implements Iterator<Tuple>, Closeable
+    {
+    private final ObjectInputStream input;
+    private long remaining;
+
+    SpillIterator( File file, long count ) throws IOException
+      {
+      this.input = new ObjectInputStream( new BufferedInputStream( new FileInputStream( file ) ) );
+      this.remaining = count;
+      }
+
+    @Override
+    public boolean hasNext()
+      {
+      return remaining > 0;
+      }
+
+    @Override
+    public Tuple next()
+      {
+      if( remaining <= 0 )
+        throw new NoSuchElementException();
+
+      try
+        {
+        Tuple tuple = (Tuple) input.readObject();
+
+        if( --remaining == 0 )
+          close();
+
+        return tuple;
+        }
+      catch( IOException exception )
+        {
+        throw new TapException( "unable to read spill file", exception );
+        }
+      catch( ClassNotFoundException exception )
+        {
+        throw new TapException( "unable to read spill file", exception );
+        }
+      }
+
+    @Override
+    public void remove()
+      {
+      throw new UnsupportedOperationException( "remove not supported" );
+      }
+
+    @Override
+    public void close() throws IOException
+      {
+      input.close();
+      }
+    }
+  }
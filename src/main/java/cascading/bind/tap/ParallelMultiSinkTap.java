@@ -0,0 +1,269 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.tap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import cascading.flow.FlowProcess;
+import cascading.tap.MultiSinkTap;
+import cascading.tap.Tap;
+import cascading.tap.TapException;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+import cascading.tuple.TupleEntryCollector;
+
+/**
+ * Class ParallelMultiSinkTap is a Cascading local mode {@link MultiSinkTap} that copies each written tuple once, and
+ * hands the same copy to every child tap.
+ * <p>
+ * Child taps marked as threaded, typically those on slow protocols, are written by their own writer thread from a
+ * bounded buffer holding at most the given number of tuples, so the slowest child no longer limits how fast tuples are
+ * written to the others. All remaining child taps are written in turn on the calling thread.
+ * <p>
+ * Written tuples are shared between child taps, so a child tap's Scheme must not modify the tuples it is given.
+ */
+public class ParallelMultiSinkTap extends MultiSinkTap<Tap, Properties, Object>
+  {
+  private static final Tuple END = new Tuple();
+
+  private final int bufferSize;
+  private final boolean[] threaded;
+
+  /**
+   * Constructor ParallelMultiSinkTap creates a new instance.
+   *
+   * @param bufferSize the number of tuples buffered ahead of each threaded child tap
+   * @param threaded   true for each child tap, in order, to be written by its own thread
+   * @param taps       the child taps
+   */
+  public ParallelMultiSinkTap( int bufferSize, boolean[] threaded, Tap... taps )
+    {
+    super( taps );
+
+    if( bufferSize < 1 )
+      throw new IllegalArgumentException( "bufferSize must be greater than zero" );
+
+    if( threaded.length != taps.length )
+      throw new IllegalArgumentException( "threaded must have one value per tap, expected: " + taps.length + ", got: " + threaded.length );
+
+    this.bufferSize = bufferSize;
+    this.threaded = threaded.clone();
+    }
+
+  public int getBufferSize()
+    {
+    return bufferSize;
+    }
+
+  public boolean isThreaded( int index )
+    {
+    return threaded[ index ];
+    }
+
+  @Override
+  public TupleEntryCollector openForWrite( FlowProcess<? extends Properties> flowProcess, Object output ) throws IOException
+    {
+    return new ParallelCollector( flowProcess );
+    }
+
+  /** Writes every collected tuple to the child taps, directly or through their writer threads. */
+  private class ParallelCollector extends TupleEntryCollector
+    {
+    private final List<TupleEntryCollector> collectors = new ArrayList<TupleEntryCollector>();
+    private final List<Writer> writers = new ArrayList<Writer>();
+
+    private ParallelCollector( FlowProcess<? extends Properties> flowProcess ) throws IOException
+      {
+      super( Fields.asDeclaration( getSinkFields() ) );
+
+      int index = 0;
+
+      try
+        {
+        for( Iterator<Tap> iterator = getChildTaps(); iterator.hasNext(); index++ )
+          {
+          TupleEntryCollector collector = iterator.next().openForWrite( flowProcess );
+
+          if( !threaded[ index ] )
+            {
+            collectors.add( collector );
+            continue;
+            }
+
+          Writer writer = new Writer( collector, new ArrayBlockingQueue<Tuple>( bufferSize ) );
+
+          writers.add( writer );
+          writer.start();
+          }
+        }
+      catch( IOException exception )
+        {
+        close();
+        throw exception;
+        }
+      }
+
+    @Override
+    protected void collect( TupleEntry tupleEntry ) throws IOException
+      {
+      // the single copy shared by every child tap
+      Tuple tuple = tupleEntry.getTupleCopy();
+
+      for( Writer writer : writers )
+        writer.put( tuple );
+
+      for( TupleEntryCollector collector : collectors )
+        collector.add( tuple );
+      }
+
+    @Override
+    public void close()
+      {
+      TapException failure = null;
+
+      for( Writer writer : writers )
+        {
+        try
+          {
+          writer.finish();
+          }
+        catch( TapException exception )
+          {
+          if( failure == null )
+            failure = exception;
+          }
+        }
+
+      for( TupleEntryCollector collector : collectors )
+        collector.close();
+
+      super.close();
+
+      if( failure != null )
+        throw failure;
+      }
+    }
+
+  /** Writes the tuples of one bounded buffer to the collector of one child tap, until the end marker is read. */
+  private static class Writer extends Thread
+    {
+    private final TupleEntryCollector collector;
+    private final BlockingQueue<Tuple> queue;
+    private volatile Throwable failure;
+
+    private Writer( TupleEntryCollector collector, BlockingQueue<Tuple> queue )
+      {
+      super( "parallel-sink-writer" );
+
+      this.collector = collector;
+      this.queue = queue;
+
+      setDaemon( true );
+      }
+
+    private void put( Tuple tuple )
+      {
+      checkFailure();
+
+      try
+        {
+        queue.put( tuple );
+        }
+      catch( InterruptedException exception )
+        {
+        Thread.currentThread().interrupt();
+        throw new TapException( "interrupted while writing child tap", exception );
+        }
+      }
+
+    private void finish()
+      {
+      try
+        {
+        queue.put( END );
+        join();
+        }
+      catch( InterruptedException exception )
+        {
+        interrupt();
+        Thread.currentThread().interrupt();
+        throw new TapException( "interrupted while closing child tap", exception );
+        }
+
+      checkFailure();
+      }
+
+    private void checkFailure()
+      {
+      if( failure != null )
+        throw new TapException( "unable to write child tap", failure );
+      }
+
+    @Override
+    public void run()
+      {
+      try
+        {
+        Tuple tuple;
+
+        while( ( tuple = queue.take() ) != END )
+          {
+          // keep draining after a failure so the writing thread never blocks on a full buffer
+          if( failure != null )
+            continue;
+
+          try
+            {
+            collector.add( tuple );
+            }
+          catch( Throwable throwable )
+            {
+            failure = throwable;
+            }
+          }
+        }
+      catch( InterruptedException exception )
+        {
+        // closed early, leave the remaining tuples unwritten
+        }
+      finally
+        {
+        try
+          {
+          collector.close();
+          }
+        catch( Throwable throwable )
+          {
+          if( failure == null )
+            failure = throwable;
+          }
+        }
+      }
+    }
+  }
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.tap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import cascading.flow.FlowProcess;
+import cascading.tap.MultiSourceTap;
+import cascading.tap.Tap;
+import cascading.tap.TapException;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntryChainIterator;
+import cascading.tuple.TupleEntryIterator;
+
+/**
+ * Class ParallelMultiSourceTap is a Cascading local mode {@link MultiSourceTap} that reads its child taps
+ * concurrently, instead of one after another.
+ * <p>
+ * Up to the given parallelism, child taps are read on background threads into bounded buffers holding at most the
+ * given number of tuples. If ordered, all tuples of a child tap are returned before any tuple of the next, as with a
+ * MultiSourceTap, otherwise tuples are returned as soon as they are read.
+ */
+public class ParallelMultiSourceTap extends MultiSourceTap<Tap, Properties, Object>
+  {
+  private static final Object END = new Object();
+
+  private final int parallelism;
+  private final int bufferSize;
+  private final boolean ordered;
+
+  public ParallelMultiSourceTap( int parallelism, int bufferSize, boolean ordered, Tap... taps )
+    {
+    super( taps );
+
+    if( parallelism < 1 )
+      throw new IllegalArgumentException( "parallelism must be greater than zero" );
+
+    if( bufferSize < 1 )
+      throw new IllegalArgumentException( "bufferSize must be greater than zero" );
+
+    this.parallelism = parallelism;
+    this.bufferSize = bufferSize;
+    this.ordered = ordered;
+    }
+
+  public int getParallelism()
+    {
+    return parallelism;
+    }
+
+  public int getBufferSize()
+    {
+    return bufferSize;
+    }
+
+  public boolean isOrdered()
+    {
+    return ordered;
+    }
+
+  @Override
+  public TupleEntryIterator openForRead( FlowProcess<? extends Properties> flowProcess, Object input ) throws IOException
+    {
+    List<Tap> taps = new ArrayList<Tap>();
+
+    for( Iterator<Tap> iterator = getChildTaps(); iterator.hasNext(); )
+      taps.add( iterator.next() );
+
+    return new TupleEntryChainIterator( getSourceFields(), new ParallelIterator( flowProcess, taps ) );
+    }
+
+  /** Holds a failure of a background reader, to be thrown by the reading thread. */
+  private static class Failure
+    {
+    private final Throwable throwable;
+
+    private Failure( Throwable throwable )
+      {
+      this.throwable = throwable;
+      }
+    }
+
+  /** Returns the tuples of every child tap from the buffers filled by the background readers. */
+  private class ParallelIterator implements Iterator<Tuple>, Closeable
+    {
+    private final List<BlockingQueue<Object>> queues = new ArrayList<BlockingQueue<Object>>();
+    private final int[] remaining;
+    private final ExecutorService executor;
+    private int current = 0;
+    private Tuple next;
+
+    private ParallelIterator( FlowProcess<? extends Properties> flowProcess, List<Tap> taps )
+      {
+      int threads = Math.min( parallelism, Math.max( 1, taps.size() ) );
+
+      if( ordered )
+        {
+        int capacity = Math.max( 1, bufferSize / threads );
+
+        for( int i = 0; i < taps.size(); i++ )
+          queues.add( new ArrayBlockingQueue<Object>( capacity ) );
+
+        remaining = new int[ taps.size() ];
+
+        for( int i = 0; i < remaining.length; i++ )
+          remaining[ i ] = 1;
+        }
+      else
+        {
+        queues.add( new ArrayBlockingQueue<Object>( bufferSize ) );
+        remaining = new int[]{taps.size()};
+        }
+
+      executor = Executors.newFixedThreadPool( threads, new ThreadFactory()
+      {
+      @Override
+      public Thread newThread( Runnable runnable )
+        {
+        Thread thread = new Thread( runnable, "parallel-source-reader" );
+
+        thread.setDaemon( true );
+
+        return thread;
+        }
+      } );
+
+      for( int i = 0; i < taps.size(); i++ )
+        executor.execute( new Reader( flowProcess, taps.get( i ), queues.get( ordered ? i : 0 ) ) );
+
+      executor.shutdown();
+      }
+
+    @Override
+    public boolean hasNext()
+      {
+      if( next == null )
+        next = take();
+
+      return next != null;
+      }
+
+    @Override
+    public Tuple next()
+      {
+      if( !hasNext() )
+        throw new NoSuchElementException();
+
+      Tuple tuple = next;
+
+      next = null;
+
+      return tuple;
+      }
+
+    private Tuple take()
+      {
+      try
+        {
+        while( current < queues.size() )
+          {
+          Object item = queues.get( current ).take();
+
+          if( item == END )
+            {
+            if( --remaining[ current ] == 0 )
+              current++;
+
+            continue;
+            }
+
+          if( item instanceof Failure )
+            {
+            close();
+            throw new TapException( "unable to read child tap", ( (Failure) item ).throwable );
+            }
+
+          return (Tuple) item;
+          }
+
+        return null;
+        }
+      catch( InterruptedException exception )
+        {
+        close();
+        Thread.currentThread().interrupt();
+        throw new TapException( "interrupted while reading child taps", exception );
+        }
+      }
+
+    @Override
+    public void remove()
+      {
+      throw new UnsupportedOperationException( "remove is not supported" );
+      }
+
+    @Override
+    public void close()
+      {
+      executor.shutdownNow();
+      }
+    }
+
+  /** Reads every tuple of one child tap into the given buffer, followed by an end marker. */
+  private static class Reader implements Runnable
+    {
+    private final FlowProcess<? extends Properties> flowProcess;
+    private final Tap tap;
+    private final BlockingQueue<Object> queue;
+
+    private Reader( FlowProcess<? extends Properties> flowProcess, Tap tap, BlockingQueue<Object> queue )
+      {
+      this.flowProcess = flowProcess;
+      this.tap = tap;
+      this.queue = queue;
+      }
+
+    @Override
+    public void run()
+      {
+      try
+        {
+        TupleEntryIterator iterator = tap.openForRead( flowProcess );
+
+        try
+          {
+          while( iterator.hasNext() )
+            queue.put( iterator.next().getTupleCopy() );
+          }
+        finally
+          {
+          iterator.close();
+          }
+
+        queue.put( END );
+        }
+      catch( InterruptedException exception )
+        {
+        Thread.currentThread().interrupt();
+        }
+      catch( Throwable throwable )
+        {
+        try
+          {
+          queue.put( new Failure( throwable ) );
+          }
+        catch( InterruptedException exception )
+          {
+          Thread.currentThread().interrupt();
+          }
+        }
+      }
+    }
+  }
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2017 Chris K Wensel <chris@wensel.net>. All Rights Reserved.
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.tap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import cascading.flow.FlowProcess;
+import cascading.tap.DecoratorTap;
+import cascading.tap.Tap;
+import cascading.tap.TapException;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntryChainIterator;
+import cascading.tuple.TupleEntryIterator;
+
+/**
+ * Class PrefetchTap decorates any source {@link Tap} so that its tuples are read ahead on a background thread into
+ * a bounded buffer, overlapping the latency of each fetch by the original Tap with the processing of the tuples
+ * already read.
+ * <p>
+ * A {@link cascading.bind.catalog.handler.ProtocolHandler} enables prefetching for a protocol by returning
+ * {@link #PREFETCH_SIZE} from {@link cascading.bind.catalog.handler.ProtocolHandler#getDefaultProperties(Object)}.
+ *
+ * @see cascading.bind.catalog.handler.ProtocolHandlers#decorate(java.util.Properties, Object, Tap)
+ */
+public class PrefetchTap<Config, Input, Output> extends DecoratorTap<Void, Config, Input, Output>
+  {
+  /** Property PREFETCH_SIZE sets the number of tuples read ahead of the current tuple. */
+  public static final String PREFETCH_SIZE = "cascading.bind.tap.prefetch.size";
+
+  private static final Object END = new Object();
+
+  private final int prefetchSize;
+
+  public PrefetchTap( Tap<Config, Input, Output> original, int prefetchSize )
+    {
+    super( original );
+
+    if( prefetchSize < 1 )
+      throw new IllegalArgumentException( "prefetchSize must be greater than zero" );
+
+    this.prefetchSize = prefetchSize;
+    }
+
+  public int getPrefetchSize()
+    {
+    return prefetchSize;
+    }
+
+  @Override
+  public TupleEntryIterator openForRead( FlowProcess<? extends Config> flowProcess, Input input ) throws IOException
+    {
+    TupleEntryIterator iterator = getOriginal().openForRead( flowProcess, input );
+
+    return new TupleEntryChainIterator( getSourceFields(), new PrefetchIterator( iterator ) );
+    }
+
+  /** Returns the tuples read ahead by a background thread from the original iterator. */
+  private class PrefetchIterator implements Iterator<Tuple>, Closeable
+    {
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>( prefetchSize );
+    private final Thread reader;
+    private Object next;
+    private boolean done;
+
+    private PrefetchIterator( final TupleEntryIterator iterator )
+      {
+      reader = new Thread( new Runnable()
+      {
+      @Override
+      public void run()
+        {
+        Object last = END;
+
+        try
+          {
+          while( iterator.hasNext() )
+            queue.put( iterator.next().getTupleCopy() );
+          }
+        catch( InterruptedException exception )
+          {
+          return;
+          }
+        catch( Throwable throwable )
+          {
+          last = throwable;
+          }
+        finally
+          {
+          try
+            {
+            iterator.close();
+            }
+          catch( IOException exception )
+            {
+            if( last == END )
+              last = exception;
+            }
+          }
+
+        try
+          {
+          queue.put( last );
+          }
+        catch( InterruptedException exception )
+          {
+          // closed early
+          }
+        }
+      }, "prefetch-" + getIdentifier() );
+
+      reader.setDaemon( true );
+      reader.start();
+      }
+
+    @Override
+    public boolean hasNext()
+      {
+      if( next == null && !done )
+        next = take();
+
+      return next != null;
+      }
+
+    @Override
+    public Tuple next()
+      {
+      if( !hasNext() )
+        throw new NoSuchElementException();
+
+      Tuple tuple = (Tuple) next;
+
+      next = null;
+
+      return tuple;
+      }
+
+    private Object take()
+      {
+      Object item;
+
+      try
+        {
+        item = queue.take();
+        }
+      catch( InterruptedException exception )
+        {
+        close();
+        Thread.currentThread().interrupt();
+        throw new TapException( "interrupted while prefetching: " + getIdentifier(), exception );
+        }
+
+      if( item == END )
+        {
+        done = true;
+        return null;
+        }
+
+      if( item instanceof Throwable )
+        {
+        done = true;
+        throw new TapException( "unable to prefetch: " + getIdentifier(), (Throwable) item );
+        }
+
+      return item;
+      }
+
+    @Override
+    public void remove()
+      {
+      throw new UnsupportedOperationException( "remove is not supported" );
+      }
+
+    @Override
+    public void close()
+      {
+      done = true;
+      reader.interrupt();
+      }
+    }
+  }
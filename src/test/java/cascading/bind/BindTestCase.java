@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import cascading.CascadingTestCase;
+import org.junit.After;
+
+/**
+ * Class BindTestCase provides tests with clean directories under the test output path, which are removed once
+ * each test completes.
+ */
+public abstract class BindTestCase extends CascadingTestCase
+  {
+  private final List<File> directories = new ArrayList<File>();
+
+  protected File createDirectory( String name ) throws IOException
+    {
+    File directory = new File( getOutputPath( name ) );
+
+    delete( directory );
+
+    if( !directory.mkdirs() )
+      throw new IOException( "unable to create directory: " + directory );
+
+    directories.add( directory );
+
+    return directory;
+    }
+
+  protected File writeFile( File directory, String name, String... lines ) throws IOException
+    {
+    File file = new File( directory, name );
+    FileWriter writer = new FileWriter( file );
+
+    try
+      {
+      for( String line : lines )
+        writer.write( line + "\n" );
+      }
+    finally
+      {
+      writer.close();
+      }
+
+    return file;
+    }
+
+  @After
+  public void removeDirectories()
+    {
+    for( File directory : directories )
+      delete( directory );
+
+    directories.clear();
+    }
+
+  private static void delete( File file )
+    {
+    File[] children = file.listFiles();
+
+    if( children != null )
+      {
+      for( File child : children )
+        delete( child );
+      }
+
+    file.delete();
+    }
+  }
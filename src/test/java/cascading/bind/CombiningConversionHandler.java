@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind;
+
+import java.util.List;
+import java.util.Properties;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.handler.CombiningProtocolHandler;
+import cascading.bind.catalog.handler.Role;
+import cascading.scheme.Scheme;
+import cascading.tap.MultiSourceTap;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+
+/** A mock resource that reads a group of local files through one combined tap. */
+public class CombiningConversionHandler extends ConversionHandler implements CombiningProtocolHandler<Protocol, Format>
+  {
+  @Override
+  public Tap createCombinedTap( Properties properties, Scheme scheme, List<Resource<Protocol, Format, SinkMode>> resources, Role role )
+    {
+    Tap[] taps = new Tap[ resources.size() ];
+
+    for( int i = 0; i < resources.size(); i++ )
+      taps[ i ] = createTap( properties, scheme, resources.get( i ), role );
+
+    return new MultiSourceTap( taps );
+    }
+  }
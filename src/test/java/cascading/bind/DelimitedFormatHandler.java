@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import cascading.bind.catalog.Stereotype;
+import cascading.bind.catalog.handler.DelimitedTranscoder;
+import cascading.bind.catalog.handler.FormatTranscoder;
+import cascading.bind.catalog.handler.Role;
+import cascading.bind.catalog.handler.TranscodingFormatHandler;
+import cascading.scheme.Scheme;
+import cascading.scheme.local.TextDelimited;
+
+/** A mock format handler for local CSV and TSV files, that can transcode between them. */
+public class DelimitedFormatHandler implements TranscodingFormatHandler<Protocol, Format>
+  {
+  @Override
+  public Collection<? extends Format> getFormats()
+    {
+    return Arrays.asList( Format.CSV, Format.TSV );
+    }
+
+  @Override
+  public boolean handles( Protocol protocol, Format format )
+    {
+    return protocol == Protocol.FILE && ( format == Format.CSV || format == Format.TSV );
+    }
+
+  @Override
+  public Scheme createScheme( Properties properties, Stereotype<Protocol, Format> stereotype, Protocol protocol, Format format, Role role )
+    {
+    if( format == Format.CSV )
+      return new TextDelimited( stereotype.getFields(), ",", "\"" );
+
+    return new TextDelimited( stereotype.getFields(), "\t" );
+    }
+
+  @Override
+  public FormatTranscoder createTranscoder( Properties properties, Stereotype<Protocol, Format> stereotype, Protocol sourceProtocol, Format sourceFormat, Protocol sinkProtocol, Format sinkFormat )
+    {
+    if( sourceFormat == Format.CSV && sinkFormat == Format.TSV )
+      return new DelimitedTranscoder( ',', '"', '\t', null );
+
+    if( sourceFormat == Format.TSV && sinkFormat == Format.CSV )
+      return new DelimitedTranscoder( '\t', null, ',', '"' );
+
+    return null;
+    }
+
+  @Override
+  public Map<String, List<String>> getDefaultProperties( Format format )
+    {
+    return null;
+    }
+  }
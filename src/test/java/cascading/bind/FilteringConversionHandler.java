@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.handler.FilteringProtocolHandler;
+import cascading.bind.catalog.handler.Predicate;
+import cascading.bind.catalog.handler.Role;
+import cascading.scheme.Scheme;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+
+/** A mock resource that claims to apply every equality predicate, without filtering, to expose skipped evaluation. */
+public class FilteringConversionHandler extends ConversionHandler implements FilteringProtocolHandler<Protocol, Format>
+  {
+  public final List<Predicate> received = new ArrayList<Predicate>();
+
+  @Override
+  public Tap createTap( Properties properties, Scheme scheme, Resource<Protocol, Format, SinkMode> resource, Role role, List<Predicate> predicates, Set<Predicate> applied )
+    {
+    received.addAll( predicates );
+
+    for( Predicate predicate : predicates )
+      {
+      if( predicate.getOperator() == Predicate.Operator.EQ )
+        applied.add( predicate );
+      }
+
+    return createTap( properties, scheme, resource, role );
+    }
+  }
@@ -20,9 +20,19 @@
 
 package cascading.bind;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 import cascading.CascadingTestCase;
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.ResourceStats;
+import cascading.bind.catalog.ResourceStatsCatalog;
+import cascading.bind.process.CascadeFactory;
 import cascading.cascade.Cascade;
 import cascading.flow.Flow;
+import cascading.tap.SinkMode;
 import cascading.tap.Tap;
 import junit.framework.Assert;
 import org.junit.Test;
@@ -86,4 +96,80 @@ public class SimpleTest extends CascadingTestCase
         Assert.assertEquals( "some/local/path", ( (Tap) flow.getSourcesCollection().iterator().next() ).getIdentifier() );
       }
     }
+
+  @Test
+  public void testCachePolicy()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "cached" );
+
+    cascadeFactory.setCachePolicy( new TestCachePolicy() );
+
+    List<CSVToTSVFactory> factories = new ArrayList<CSVToTSVFactory>();
+
+    for( int i = 0; i < 3; i++ )
+      {
+      CSVToTSVFactory factory = new CSVToTSVFactory( "convert" + i, new PersonStereotype() );
+      factory.setSource( Protocol.HTTP, "http://some/remote/path" );
+      factory.setSink( Protocol.FILE, "some/place/" + i );
+
+      cascadeFactory.addProcessFactory( factory );
+      factories.add( factory );
+      }
+
+    // a local resource is never worth caching
+    CSVToTSVFactory local = new CSVToTSVFactory( "local", new PersonStereotype() );
+    local.setSource( Protocol.FILE, "some/local/path" );
+    local.setSink( Protocol.FILE, "some/place/local" );
+
+    cascadeFactory.addProcessFactory( local );
+
+    Cascade cascade = cascadeFactory.create();
+
+    Assert.assertEquals( 5, cascade.getFlows().size() );
+
+    for( Flow flow : cascade.getFlows() )
+      {
+      if( flow.getName().startsWith( "convert" ) )
+        Assert.assertEquals( "some/cache/http___some_remote_path", ( (Tap) flow.getSourcesCollection().iterator().next() ).getIdentifier() );
+      else if( flow.getName().equals( "local" ) )
+        Assert.assertEquals( "some/local/path", ( (Tap) flow.getSourcesCollection().iterator().next() ).getIdentifier() );
+      else
+        Assert.assertEquals( "http://some/remote/path", ( (Tap) flow.getSourcesCollection().iterator().next() ).getIdentifier() );
+      }
+
+    // the cache factory and re-bound sources only live for a single create
+    for( CSVToTSVFactory factory : factories )
+      Assert.assertEquals( "http://some/remote/path", ( (Resource) factory.getAllSourceResources().iterator().next() ).getIdentifier() );
+
+    Assert.assertEquals( 5, cascadeFactory.create().getFlows().size() );
+    }
+
+  @Test
+  public void testCachePolicyStatsCatalog() throws IOException
+    {
+    ResourceStatsCatalog catalog = new ResourceStatsCatalog( new File( "build/test/simple/stats.properties" ) );
+
+    catalog.setStats( new Resource<Protocol, Format, SinkMode>( "http://some/remote/path", Protocol.HTTP, Format.CSV, SinkMode.KEEP ), new ResourceStats( 1024 * 1024, 1000, -1, -1, -1 ) );
+
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "cached" );
+    TestCachePolicy cachePolicy = new TestCachePolicy();
+
+    cascadeFactory.setResourceStatsCatalog( catalog );
+    cascadeFactory.setCachePolicy( cachePolicy );
+
+    for( int i = 0; i < 2; i++ )
+      {
+      CSVToTSVFactory factory = new CSVToTSVFactory( "convert" + i, new PersonStereotype() );
+      factory.setSource( Protocol.HTTP, "http://some/remote/path" );
+      factory.setSink( Protocol.FILE, "some/place/" + i );
+
+      cascadeFactory.addProcessFactory( factory );
+      }
+
+    Cascade cascade = cascadeFactory.create();
+
+    // the cascade catalog is handed to the policy, and the recorded size makes the copy worth it
+    Assert.assertSame( catalog, cachePolicy.getResourceStatsCatalog() );
+    Assert.assertEquals( 3, cascade.getFlows().size() );
+    }
   }
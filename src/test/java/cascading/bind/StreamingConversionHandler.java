@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Properties;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.handler.StreamingProtocolHandler;
+import cascading.tap.SinkMode;
+
+/** A mock resource that additionally streams the bytes of local files. */
+public class StreamingConversionHandler extends ConversionHandler implements StreamingProtocolHandler<Protocol, Format>
+  {
+  @Override
+  public boolean handles( Protocol protocol )
+    {
+    return protocol == Protocol.FILE;
+    }
+
+  @Override
+  public ReadableByteChannel openChannelForRead( Properties properties, Resource<Protocol, Format, SinkMode> resource ) throws IOException
+    {
+    return new FileInputStream( resource.getIdentifier() ).getChannel();
+    }
+
+  @Override
+  public WritableByteChannel openChannelForWrite( Properties properties, Resource<Protocol, Format, SinkMode> resource ) throws IOException
+    {
+    return new FileOutputStream( resource.getIdentifier() ).getChannel();
+    }
+  }
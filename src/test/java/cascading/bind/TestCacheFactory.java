@@ -74,7 +74,7 @@ public class TestCacheFactory extends CascadeFactory
       cache.addSinkResource( cachedHandler );
 
       for( ProcessFactory dependency : dependencies )
-        dependency.replaceSourceResource( resource, cachedHandler );
+        replaceSourceResource( dependency, resource, cachedHandler );
 
       addProcessFactory( cache );
       }
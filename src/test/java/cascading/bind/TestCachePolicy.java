@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind;
+
+import cascading.bind.catalog.Resource;
+import cascading.bind.process.CostBasedCachePolicy;
+import cascading.bind.process.ProcessFactory;
+
+/** A mock CachePolicy that caches remote resources on the local filesystem. */
+public class TestCachePolicy extends CostBasedCachePolicy<Protocol, Format>
+  {
+  @Override
+  protected double getLatency( Protocol protocol )
+    {
+    return protocol == Protocol.FILE ? 1 : 1000;
+    }
+
+  @Override
+  protected double getThroughput( Protocol protocol )
+    {
+    return protocol == Protocol.FILE ? 1000 : 10;
+    }
+
+  @Override
+  protected Protocol getCacheProtocol( Resource<Protocol, Format, ?> resource )
+    {
+    return Protocol.FILE;
+    }
+
+  @Override
+  protected Format getCacheFormat( Resource<Protocol, Format, ?> resource )
+    {
+    return resource.getFormat();
+    }
+
+  @Override
+  protected String getCacheIdentifier( Resource<Protocol, Format, ?> resource )
+    {
+    return "some/cache/" + resource.getIdentifier().replaceAll( "\\W", "_" );
+    }
+
+  @Override
+  public ProcessFactory createCacheFactoryFor( String name, Resource resource, Resource cacheResource )
+    {
+    TestCopyFactory copyFactory = new TestCopyFactory( name );
+
+    copyFactory.addSourceResource( resource );
+    copyFactory.addSinkResource( cacheResource );
+
+    return copyFactory;
+    }
+  }
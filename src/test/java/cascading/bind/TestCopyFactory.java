@@ -21,6 +21,7 @@
 
 package cascading.bind;
 
+import java.util.Map;
 import java.util.Properties;
 
 import cascading.bind.catalog.Resource;
@@ -78,8 +79,14 @@ public class TestCopyFactory extends FlowFactory
   @Override
   public Flow create( FlowDef flowDef )
     {
-    Pipe pipe = new Pipe( getName() ); // this forces pipe-lining between the source and sink
+    return createFlowFrom( flowDef, createAssembly( createHeads() ) );
+    }
+
+  @Override
+  protected Pipe[] createAssembly( Map heads )
+    {
+    Pipe pipe = (Pipe) heads.get( getName() ); // this forces pipe-lining between the source and sink
 
-    return createFlowFrom( flowDef, pipe );
+    return Pipe.pipes( pipe );
     }
   }
@@ -52,6 +52,11 @@ public class JSONTest
     wroteStereotypes.addStereotype( new Stereotype<String, String>( "hdfs", null, "second", Fields.UNKNOWN ) );
     wroteStereotypes.addStereotype( new Stereotype<String, String>( "hdfs", null, "third", new Fields( "one", "two", "three" ).applyTypes( int.class, Double.class, String.class ) ) );
 
+    Stereotype<String, String> bucketed = new Stereotype<String, String>( "hdfs", null, "fourth", new Fields( "one", "two" ) );
+
+    bucketed.setBucketing( 8, new Fields( "one" ), new Fields( "one", "two" ) );
+    wroteStereotypes.addStereotype( bucketed );
+
     String jsonFirst = writeObject( wroteStereotypes );
 
 //    System.out.println( jsonFirst );
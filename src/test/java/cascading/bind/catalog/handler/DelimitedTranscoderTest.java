@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.catalog.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import cascading.CascadingTestCase;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class DelimitedTranscoderTest extends CascadingTestCase
+  {
+  private String transcode( FormatTranscoder transcoder, String input, long records ) throws IOException
+    {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    long count = transcoder.transcode( Channels.newChannel( new ByteArrayInputStream( input.getBytes( "UTF-8" ) ) ), Channels.newChannel( output ) );
+
+    assertEquals( records, count );
+
+    return output.toString( "UTF-8" );
+    }
+
+  @Test
+  public void testCSVToTSV() throws IOException
+    {
+    DelimitedTranscoder transcoder = new DelimitedTranscoder( ',', '"', '\t', '"' );
+
+    assertEquals( "a\tb\tc\n1\t2\t3\n", transcode( transcoder, "a,b,c\r\n1,2,3", 2 ) );
+    assertEquals( "a,b\t\"c\"\"d\"\"\"\n", transcode( transcoder, "\"a,b\",\"c\"\"d\"\"\"\n", 1 ) );
+    assertEquals( "\"a\tb\"\tc\n", transcode( transcoder, "a\tb,c\n", 1 ) );
+    assertEquals( "\u00e9t\u00e9\t\n", transcode( transcoder, "\u00e9t\u00e9,\n", 1 ) );
+    }
+
+  @Test
+  public void testUnterminatedQuote() throws IOException
+    {
+    DelimitedTranscoder transcoder = new DelimitedTranscoder( ',', '"', '\t', null );
+
+    try
+      {
+      transcode( transcoder, "\"a,b\n", 0 );
+      fail( "should fail on unterminated quote" );
+      }
+    catch( IOException exception )
+      {
+      // expected
+      }
+    }
+  }
@@ -0,0 +1,470 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import cascading.bind.BindTestCase;
+import cascading.bind.Format;
+import cascading.bind.Protocol;
+import cascading.bind.TestCopyFactory;
+import cascading.bind.catalog.Resource;
+import cascading.bind.tap.MemoryBudget;
+import cascading.bind.tap.MemoryTap;
+import cascading.cascade.Cascade;
+import cascading.flow.Flow;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class CascadeFactoryTest extends BindTestCase
+  {
+  private TestCopyFactory createFactory( String name, String source, String sink )
+    {
+    TestCopyFactory factory = new TestCopyFactory( name );
+
+    factory.addSourceResource( new Resource( source, Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+    factory.addSinkResource( new Resource( sink, Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+
+    return factory;
+    }
+
+  @Test
+  public void testResourceIndex()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "index" );
+
+    cascadeFactory.addProcessFactory( createFactory( "first", "/warehouse/events/2017/01", "/warehouse/rollup/01" ) );
+    cascadeFactory.addProcessFactory( createFactory( "second", "/warehouse/events/2017/02", "/warehouse/rollup/02" ) );
+    cascadeFactory.addProcessFactory( createFactory( "third", "/warehouse/eventsold/2016", "/warehouse/rollup/2016" ) );
+
+    Collection<Resource> resources = cascadeFactory.getResourcesWith( "/warehouse/events/2017/01" );
+
+    assertEquals( 1, resources.size() );
+    assertEquals( "/warehouse/events/2017/01", resources.iterator().next().getIdentifier() );
+
+    assertTrue( cascadeFactory.getResourcesWith( "/warehouse/events" ).isEmpty() );
+
+    assertEquals( 2, cascadeFactory.getResourcesUnder( "/warehouse/events/" ).size() );
+    assertEquals( 3, cascadeFactory.getResourcesUnder( "/warehouse/rollup/" ).size() );
+    assertEquals( 6, cascadeFactory.getResourcesUnder( "/warehouse/" ).size() );
+    assertTrue( cascadeFactory.getResourcesUnder( "/other/" ).isEmpty() );
+    }
+
+  @Test
+  public void testIncrementalResourceGraph()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "incremental" );
+
+    TestCopyFactory first = createFactory( "first", "some/source", "some/intermediate" );
+    cascadeFactory.addProcessFactory( first );
+
+    assertEquals( 2, cascadeFactory.getAllResources().size() );
+
+    TestCopyFactory second = createFactory( "second", "some/intermediate", "some/sink" );
+    cascadeFactory.addProcessFactory( second );
+
+    assertEquals( 3, cascadeFactory.getAllResources().size() );
+
+    Resource intermediate = cascadeFactory.getResourcesWith( "some/intermediate" ).iterator().next();
+    Resource replacement = new Resource( "some/other", intermediate.getProtocol(), intermediate.getFormat(), intermediate.getMode() );
+
+    assertTrue( cascadeFactory.replaceSourceResource( second, intermediate, replacement ) );
+
+    assertEquals( 4, cascadeFactory.getAllResources().size() );
+    assertEquals( 1, cascadeFactory.getResourcesWith( "some/other" ).size() );
+    assertTrue( cascadeFactory.getSourceDependenciesOn( replacement ).contains( second ) );
+
+    assertTrue( cascadeFactory.removeProcessFactory( second ) );
+
+    assertEquals( 2, cascadeFactory.getAllResources().size() );
+    assertTrue( cascadeFactory.getResourcesWith( "some/other" ).isEmpty() );
+    assertTrue( cascadeFactory.getResourcesWith( "some/sink" ).isEmpty() );
+    assertEquals( 1, cascadeFactory.getResourcesWith( "some/intermediate" ).size() );
+    }
+
+  @Test
+  public void testSharedResourcePairs()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "shared" );
+
+    TestCopyFactory first = createFactory( "first", "some/source", "some/sink" );
+    TestCopyFactory second = createFactory( "second", "some/source", "some/sink" );
+
+    cascadeFactory.addProcessFactory( first );
+    cascadeFactory.addProcessFactory( second );
+
+    Resource source = cascadeFactory.getResourcesWith( "some/source" ).iterator().next();
+    Resource sink = cascadeFactory.getResourcesWith( "some/sink" ).iterator().next();
+
+    assertEquals( 2, cascadeFactory.getSourceDependenciesOn( source ).size() );
+    assertEquals( 2, cascadeFactory.getSinkDependenciesOn( sink ).size() );
+    assertTrue( cascadeFactory.getSinkDependenciesOn( source ).isEmpty() );
+    assertTrue( cascadeFactory.getSourceDependenciesOn( sink ).isEmpty() );
+    }
+
+  @Test
+  public void testFindUpToDate() throws IOException
+    {
+    File directory = createDirectory( "uptodate" );
+
+    File source = createFile( directory, "source", 10000 );
+    File intermediate = createFile( directory, "intermediate", 20000 );
+    File sink = createFile( directory, "sink", 30000 );
+
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "incremental" );
+
+    TestCopyFactory first = createFactory( "first", source.getPath(), intermediate.getPath() );
+    TestCopyFactory second = createFactory( "second", intermediate.getPath(), sink.getPath() );
+
+    cascadeFactory.addProcessFactory( first );
+    cascadeFactory.addProcessFactory( second );
+
+    Set<ProcessFactory> upToDate = cascadeFactory.findUpToDate();
+
+    assertEquals( 2, upToDate.size() );
+
+    // an upstream change invalidates every downstream factory
+    assertTrue( source.setLastModified( 40000 ) );
+
+    assertTrue( cascadeFactory.findUpToDate().isEmpty() );
+
+    // a downstream change only invalidates the downstream factory
+    assertTrue( source.setLastModified( 10000 ) );
+    assertTrue( sink.delete() );
+
+    upToDate = cascadeFactory.findUpToDate();
+
+    assertEquals( 1, upToDate.size() );
+    assertTrue( upToDate.contains( first ) );
+
+    // up to date factories are not planned
+    cascadeFactory.setIncremental( true );
+
+    Cascade cascade = cascadeFactory.create();
+
+    assertEquals( 1, cascade.getFlows().size() );
+    assertEquals( "second", cascade.getFlows().get( 0 ).getName() );
+    }
+
+  @Test
+  public void testFindProducersOf()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "targets" );
+
+    TestCopyFactory first = createFactory( "first", "some/source", "some/intermediate" );
+    TestCopyFactory second = createFactory( "second", "some/intermediate", "some/sink" );
+    TestCopyFactory unrelated = createFactory( "unrelated", "some/source", "some/other" );
+
+    cascadeFactory.addProcessFactory( first );
+    cascadeFactory.addProcessFactory( unrelated );
+    cascadeFactory.addProcessFactory( second );
+
+    Collection<Resource> targets = cascadeFactory.getResourcesWith( "some/sink" );
+    List<ProcessFactory> producers = cascadeFactory.findProducersOf( targets );
+
+    assertEquals( 2, producers.size() );
+    assertEquals( first, producers.get( 0 ) );
+    assertEquals( second, producers.get( 1 ) );
+
+    Cascade cascade = cascadeFactory.create( targets );
+
+    assertEquals( 2, cascade.getFlows().size() );
+    }
+
+  @Test
+  public void testCriticalPathPriorities()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "critical" );
+
+    cascadeFactory.addProcessFactory( createFactory( "unrelated", "some/source", "some/other" ) );
+    cascadeFactory.addProcessFactory( createFactory( "second", "some/intermediate", "some/sink" ) );
+    cascadeFactory.addProcessFactory( createFactory( "first", "some/source", "some/intermediate" ) );
+
+    cascadeFactory.setDurationEstimator( new DurationEstimator()
+    {
+    @Override
+    public long getEstimatedDuration( ProcessFactory processFactory, List<Flow> flows )
+      {
+      return 1000;
+      }
+    } );
+
+    Cascade cascade = cascadeFactory.create();
+
+    for( Flow flow : cascade.getFlows() )
+      {
+      if( flow.getName().equals( "first" ) )
+        assertEquals( 1, flow.getSubmitPriority() );
+      else
+        assertEquals( 5, flow.getSubmitPriority() );
+      }
+    }
+
+  @Test
+  public void testFuseFlows()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "fused" );
+
+    cascadeFactory.addProcessFactory( createFactory( "first", "some/source", "some/intermediate" ) );
+    cascadeFactory.addProcessFactory( createFactory( "second", "some/intermediate", "some/sink" ) );
+    cascadeFactory.addProcessFactory( createFactory( "unrelated", "some/source", "some/other" ) );
+
+    cascadeFactory.setFuseFlows( true );
+
+    Cascade cascade = cascadeFactory.create();
+
+    assertEquals( 2, cascade.getFlows().size() );
+
+    Flow fused = null;
+
+    for( Flow flow : cascade.getFlows() )
+      {
+      if( flow.getName().equals( "first+second" ) )
+        fused = flow;
+      }
+
+    assertNotNull( fused );
+
+    assertEquals( "some/source", ( (Tap) fused.getSourcesCollection().iterator().next() ).getIdentifier() );
+    assertEquals( "some/sink", ( (Tap) fused.getSinksCollection().iterator().next() ).getIdentifier() );
+    assertTrue( fused.getCheckpointsCollection().isEmpty() );
+
+    // a requested intermediate resource is kept as a checkpoint
+    Collection<Resource> targets = new ArrayList<Resource>();
+
+    targets.addAll( cascadeFactory.getResourcesWith( "some/intermediate" ) );
+    targets.addAll( cascadeFactory.getResourcesWith( "some/sink" ) );
+
+    cascade = cascadeFactory.create( targets );
+
+    assertEquals( 1, cascade.getFlows().size() );
+
+    fused = cascade.getFlows().get( 0 );
+
+    assertEquals( 1, fused.getCheckpointsCollection().size() );
+    assertEquals( "some/intermediate", ( (Tap) fused.getCheckpointsCollection().iterator().next() ).getIdentifier() );
+    }
+
+  @Test
+  public void testShareScans()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "shared" );
+
+    cascadeFactory.addProcessFactory( createFactory( "first", "some/source", "some/first" ) );
+    cascadeFactory.addProcessFactory( createFactory( "second", "some/source", "some/second" ) );
+    cascadeFactory.addProcessFactory( createFactory( "third", "some/first", "some/third" ) );
+
+    cascadeFactory.setShareScans( true );
+
+    Cascade cascade = cascadeFactory.create();
+
+    assertEquals( 2, cascade.getFlows().size() );
+
+    for( Flow flow : cascade.getFlows() )
+      {
+      if( !flow.getName().equals( "first+second" ) )
+        continue;
+
+      assertEquals( 1, flow.getSourcesCollection().size() );
+      assertEquals( 2, flow.getSinksCollection().size() );
+      }
+    }
+
+  @Test
+  public void testPipelinedPartitions()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "pipelined" );
+
+    cascadeFactory.addProcessFactory( createPartitionedFactory( "first", "some/source", "some/intermediate" ) );
+    cascadeFactory.addProcessFactory( createPartitionedFactory( "second", "some/intermediate", "some/sink" ) );
+
+    cascadeFactory.setPipelined( true );
+
+    Cascade cascade = cascadeFactory.create();
+
+    assertEquals( 4, cascade.getFlows().size() );
+
+    for( Flow flow : cascade.getFlows() )
+      {
+      String partition = flow.getName().substring( flow.getName().lastIndexOf( '-' ) + 1 );
+      String source = ( (Tap) flow.getSourcesCollection().iterator().next() ).getIdentifier();
+
+      assertTrue( source.endsWith( "/" + partition ) );
+      }
+    }
+
+  @Test
+  public void testMemoryIntermediates()
+    {
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "memory" );
+
+    TestCopyFactory first = createFactory( "first", "some/source", "some/intermediate" );
+
+    cascadeFactory.addProcessFactory( first );
+    cascadeFactory.addProcessFactory( createFactory( "second", "some/intermediate", "some/other" ) );
+    cascadeFactory.addProcessFactory( createFactory( "third", "some/other", "some/sink" ) );
+
+    cascadeFactory.setMemoryIntermediates( true );
+
+    Cascade cascade = cascadeFactory.create();
+
+    assertEquals( 3, cascade.getFlows().size() );
+
+    Set<MemoryBudget> budgets = new HashSet<MemoryBudget>();
+
+    for( Flow flow : cascade.getFlows() )
+      {
+      if( !flow.getName().equals( "third" ) )
+        budgets.add( ( (MemoryTap) flow.getSinksCollection().iterator().next() ).getMemoryBudget() );
+
+      if( !flow.getName().equals( "first" ) )
+        budgets.add( ( (MemoryTap) flow.getSourcesCollection().iterator().next() ).getMemoryBudget() );
+      }
+
+    // every intermediate shares one budget
+    assertEquals( 1, budgets.size() );
+
+    // bound taps only live as long as planning
+    assertFalse( first.getSinkTapFor( "first" ) instanceof MemoryTap );
+    }
+
+  @Test
+  public void testConcurrentPlanningOrder()
+    {
+    for( int parallelism : new int[]{1, 2, 8} )
+      {
+      Properties properties = new Properties();
+
+      CascadeFactory.setPlannerParallelism( properties, parallelism );
+
+      CascadeFactory cascadeFactory = new CascadeFactory( properties, "order" );
+      List<ProcessFactory> processFactories = new ArrayList<ProcessFactory>();
+
+      for( int i = 0; i < 6; i++ )
+        processFactories.add( createFactory( "factory-" + i, "some/source/" + i, "some/sink/" + i ) );
+
+      Map<ProcessFactory, List<Flow>> createdFlows = cascadeFactory.createFlows( processFactories );
+
+      assertEquals( processFactories, new ArrayList<ProcessFactory>( createdFlows.keySet() ) );
+
+      int i = 0;
+
+      for( List<Flow> flows : createdFlows.values() )
+        assertEquals( "factory-" + i++, flows.get( 0 ).getName() );
+      }
+    }
+
+  @Test
+  public void testConcurrentPlanningFailures()
+    {
+    Properties properties = new Properties();
+
+    CascadeFactory.setPlannerParallelism( properties, 4 );
+
+    CascadeFactory cascadeFactory = new CascadeFactory( properties, "failures" );
+    List<ProcessFactory> processFactories = new ArrayList<ProcessFactory>();
+
+    processFactories.add( createFactory( "first", "some/source", "some/intermediate" ) );
+    processFactories.add( createFailingFactory( "second" ) );
+    processFactories.add( createFailingFactory( "third" ) );
+    processFactories.add( createFailingFactory( "fourth" ) );
+
+    try
+      {
+      cascadeFactory.createFlows( processFactories );
+      fail( "planning should have failed" );
+      }
+    catch( IllegalStateException exception )
+      {
+      // every failure is reported, the first in factory order as the cause
+      assertEquals( "failed planning: second", exception.getCause().getMessage() );
+      assertEquals( 2, exception.getSuppressed().length );
+      assertEquals( "failed planning: third", exception.getSuppressed()[ 0 ].getMessage() );
+      assertEquals( "failed planning: fourth", exception.getSuppressed()[ 1 ].getMessage() );
+      }
+
+    // a single failure is re-thrown as is
+    try
+      {
+      cascadeFactory.createFlows( processFactories.subList( 0, 2 ) );
+      fail( "planning should have failed" );
+      }
+    catch( IllegalStateException exception )
+      {
+      assertEquals( "failed planning: second", exception.getMessage() );
+      assertEquals( 0, exception.getSuppressed().length );
+      }
+    }
+
+  private TestCopyFactory createFailingFactory( String name )
+    {
+    return new TestCopyFactory( name )
+    {
+    @Override
+    public Flow create()
+      {
+      throw new IllegalStateException( "failed planning: " + getName() );
+      }
+    };
+    }
+
+  private TestCopyFactory createPartitionedFactory( String name, String source, String sink )
+    {
+    TestCopyFactory factory = new TestCopyFactory( name )
+    {
+    @Override
+    public boolean isPartitionable()
+      {
+      return true;
+      }
+    };
+
+    for( int i = 0; i < 2; i++ )
+      {
+      factory.addSourceResource( new Resource( source + "/" + i, Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+      factory.addSinkResource( new Resource( sink + "/" + i, Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+      }
+
+    return factory;
+    }
+
+  private File createFile( File directory, String name, long modifiedTime ) throws IOException
+    {
+    File file = new File( directory, name );
+
+    assertTrue( file.createNewFile() );
+    assertTrue( file.setLastModified( modifiedTime ) );
+
+    return file;
+    }
+  }
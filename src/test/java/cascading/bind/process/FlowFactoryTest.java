@@ -0,0 +1,590 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import cascading.bind.BindTestCase;
+import cascading.bind.CombiningConversionHandler;
+import cascading.bind.ConversionHandler;
+import cascading.bind.DelimitedFormatHandler;
+import cascading.bind.FilteringConversionHandler;
+import cascading.bind.Format;
+import cascading.bind.PersonStereotype;
+import cascading.bind.Protocol;
+import cascading.bind.StreamingConversionHandler;
+import cascading.bind.TestCopyFactory;
+import cascading.bind.catalog.Resource;
+import cascading.bind.catalog.ResourceStats;
+import cascading.bind.catalog.ResourceStatsCatalog;
+import cascading.bind.catalog.Stereotype;
+import cascading.bind.catalog.handler.FormatHandler;
+import cascading.bind.catalog.handler.Predicate;
+import cascading.bind.catalog.handler.ProtocolHandler;
+import cascading.bind.tap.ParallelMultiSinkTap;
+import cascading.bind.tap.ParallelMultiSourceTap;
+import cascading.flow.Flow;
+import cascading.flow.local.LocalFlowConnector;
+import cascading.flow.process.ProcessFlow;
+import cascading.operation.Debug;
+import cascading.operation.Identity;
+import cascading.operation.regex.RegexFilter;
+import cascading.pipe.CoGroup;
+import cascading.pipe.Each;
+import cascading.pipe.GroupBy;
+import cascading.pipe.HashJoin;
+import cascading.pipe.Merge;
+import cascading.pipe.Pipe;
+import cascading.pipe.assembly.Retain;
+import cascading.pipe.joiner.LeftJoin;
+import cascading.scheme.local.TextLine;
+import cascading.tap.MultiSourceTap;
+import cascading.tap.SinkMode;
+import cascading.tap.Tap;
+import cascading.tap.local.FileTap;
+import cascading.tuple.Fields;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class FlowFactoryTest extends BindTestCase
+  {
+  @Test
+  public void testReferencedFields()
+    {
+    Collection<Tap> sinks = Collections.<Tap>singletonList( new FileTap( new TextLine( new Fields( "line" ), new Fields( "line" ) ), "some/place" ) );
+
+    Pipe pipe = new Pipe( "projected" );
+
+    pipe = new Each( pipe, new Fields( "first" ), new RegexFilter( "^a" ) );
+    pipe = new GroupBy( pipe, new Fields( "second" ) );
+
+    Set<Comparable> referenced = FieldsProjection.referencedFields( Pipe.pipes( pipe ), sinks );
+
+    assertEquals( new HashSet<Comparable>( Arrays.<Comparable>asList( "first", "second", "line" ) ), referenced );
+
+    Fields projection = FieldsProjection.project( new Fields( "first", "second", "third", "line" ), referenced );
+
+    assertEquals( new Fields( "first", "second", "line" ), projection );
+
+    // an operation reading all fields prevents any projection
+    pipe = new Each( pipe, new Debug() );
+
+    assertNull( FieldsProjection.referencedFields( Pipe.pipes( pipe ), sinks ) );
+    }
+
+  @Test
+  public void testReferencedOutputFields()
+    {
+    Collection<Tap> sinks = Collections.<Tap>singletonList( new FileTap( new TextLine( new Fields( "line" ), new Fields( "line" ) ), "some/place" ) );
+
+    Pipe pipe = new Pipe( "projected" );
+
+    // second is only kept by the output selector
+    pipe = new Each( pipe, new Fields( "first" ), new Identity( new Fields( "line" ) ), new Fields( "second", "line" ) );
+
+    Set<Comparable> referenced = FieldsProjection.referencedFields( Pipe.pipes( pipe ), sinks );
+
+    assertEquals( new HashSet<Comparable>( Arrays.<Comparable>asList( "first", "second", "line" ) ), referenced );
+    assertEquals( new Fields( "first", "second", "line" ), FieldsProjection.project( new Fields( "first", "second", "third", "line" ), referenced ) );
+
+    // an output selector retaining all incoming fields prevents any projection
+    pipe = new Each( new Pipe( "projected" ), new Fields( "first" ), new Identity( new Fields( "line" ) ), Fields.ALL );
+
+    assertNull( FieldsProjection.referencedFields( Pipe.pipes( pipe ), sinks ) );
+
+    pipe = new Each( new Pipe( "projected" ), new Fields( "first" ), new Identity( new Fields( "line" ) ), Fields.SWAP );
+
+    assertNull( FieldsProjection.referencedFields( Pipe.pipes( pipe ), sinks ) );
+    }
+
+  @Test
+  public void testPredicatePushdown() throws IOException
+    {
+    File directory = createDirectory( "predicate" );
+
+    File source = writeFile( directory, "source", "a", "b", "a" );
+
+    // one filter instance is shared by every flow, as it holds no state of its own
+    PredicateFilter filter = new PredicateFilter( Predicate.eq( "line", "a" ) );
+
+    File filtered = new File( directory, "filtered" );
+    runPredicateFlow( filter, null, source, filtered );
+
+    assertEquals( "a\na\n", new String( Files.readAllBytes( filtered.toPath() ), "UTF-8" ) );
+
+    FilteringConversionHandler handler = new FilteringConversionHandler();
+    File pushed = new File( directory, "pushed" );
+
+    runPredicateFlow( filter, handler, source, pushed );
+
+    assertEquals( Collections.singletonList( Predicate.eq( "line", "a" ) ), handler.received );
+
+    // the mock handler does not actually filter, so an applied predicate must not be evaluated again
+    assertEquals( "a\nb\na\n", new String( Files.readAllBytes( pushed.toPath() ), "UTF-8" ) );
+
+    File again = new File( directory, "again" );
+    runPredicateFlow( filter, null, source, again );
+
+    assertEquals( "a\na\n", new String( Files.readAllBytes( again.toPath() ), "UTF-8" ) );
+    }
+
+  @Test
+  public void testPredicatePushdownSharedSource()
+    {
+    Each lhs = PredicateFilter.filter( new Pipe( "source" ), Predicate.eq( "line", "a" ), Predicate.eq( "other", "b" ) );
+    Each rhs = PredicateFilter.filter( new Pipe( "source" ), Predicate.eq( "line", "a" ) );
+
+    Map<String, List<List<Each>>> chains = PredicatePushdown.leadingFilters( Pipe.pipes( new Merge( lhs, rhs ) ) );
+
+    // every head with the same name reads the same source, so only common predicates may be pushed
+    assertEquals( 2, chains.get( "source" ).size() );
+    assertEquals( Collections.singletonList( Predicate.eq( "line", "a" ) ), PredicatePushdown.predicatesFor( chains.get( "source" ) ) );
+
+    chains = PredicatePushdown.leadingFilters( Pipe.pipes( new Merge( lhs, new Pipe( "source" ) ) ) );
+
+    assertTrue( PredicatePushdown.predicatesFor( chains.get( "source" ) ).isEmpty() );
+    }
+
+  private void runPredicateFlow( final PredicateFilter filter, FilteringConversionHandler handler, File source, File sink )
+    {
+    TestCopyFactory factory = new TestCopyFactory( "predicate" )
+    {
+    @Override
+    protected Pipe[] createAssembly( Map heads )
+      {
+      return Pipe.pipes( new Each( (Pipe) heads.get( getName() ), new Fields( "line" ), filter ) );
+      }
+    };
+
+    if( handler != null )
+      factory.addProtocolHandlers( "filtering", Collections.<ProtocolHandler<Protocol, Format>>singletonList( handler ) );
+
+    factory.addSourceResource( new Resource( "filtering", source.getPath(), Protocol.FILE, Format.TSV, SinkMode.KEEP ) );
+    factory.addSinkResource( new Resource( sink.getPath(), Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+
+    factory.create().complete();
+    }
+
+  @Test
+  public void testResourceStats() throws IOException
+    {
+    File directory = createDirectory( "stats" );
+
+    File source = writeFile( directory, "source", "a", "b", "c" );
+    File sink = new File( directory, "sink" );
+
+    File catalogFile = new File( directory, "stats.properties" );
+    ResourceStatsCatalog catalog = new ResourceStatsCatalog( catalogFile );
+
+    TestCopyFactory factory = new TestCopyFactory( "stats" );
+
+    factory.setResourceStatsCatalog( catalog );
+
+    Resource sourceResource = new Resource( source.getPath(), Protocol.FILE, Format.TSV, SinkMode.KEEP );
+    Resource sinkResource = new Resource( sink.getPath(), Protocol.FILE, Format.TSV, SinkMode.REPLACE );
+
+    factory.addSourceResource( sourceResource );
+    factory.addSinkResource( sinkResource );
+
+    assertNull( factory.getResourceStats( sourceResource ) );
+
+    factory.create().complete();
+
+    ResourceStats sourceStats = factory.getResourceStats( sourceResource );
+
+    assertNotNull( sourceStats );
+    assertEquals( source.length(), sourceStats.getSize() );
+    assertEquals( 3, sourceStats.getRecords() );
+    assertEquals( 3, factory.getResourceStats( sinkResource ).getRecords() );
+    assertEquals( sink.length(), factory.getResourceStats( sinkResource ).getSize() );
+
+    assertEquals( sourceStats, new ResourceStatsCatalog( catalogFile ).getStats( sourceResource ) );
+    }
+
+  @Test
+  public void testJoinSelection() throws IOException
+    {
+    File directory = createDirectory( "join" );
+    ResourceStatsCatalog catalog = new ResourceStatsCatalog( new File( directory, "stats.properties" ) );
+
+    Resource small = new Resource( "small", Protocol.FILE, Format.TSV, SinkMode.KEEP );
+    Resource large = new Resource( "large", Protocol.FILE, Format.TSV, SinkMode.KEEP );
+
+    catalog.setStats( small, new ResourceStats( 10, -1, -1, -1, -1 ) );
+    catalog.setStats( large, new ResourceStats( 1000, -1, -1, -1, -1 ) );
+
+    Properties properties = new Properties();
+
+    FlowFactory.setJoinMemoryThreshold( properties, 100 );
+
+    TestCopyFactory factory = new TestCopyFactory( properties, "join" );
+
+    factory.setResourceStatsCatalog( catalog );
+    factory.setSourceStereotype( "small", new Stereotype<Protocol, Format>( "small", new Fields( "line" ) ) );
+    factory.setSourceStereotype( "large", new Stereotype<Protocol, Format>( "large", new Fields( "other" ) ) );
+    factory.addSourceResource( "small", small );
+    factory.addSourceResource( "large", large );
+
+    Fields fields = new Fields( "line" );
+    Pipe join = factory.createJoin( new Pipe( "large" ), fields, new Pipe( "small" ), new Fields( "other" ) );
+
+    assertTrue( join instanceof HashJoin );
+    assertEquals( "small", join.getPrevious()[ 1 ].getName() );
+
+    // an inner join holds the smaller left hand side in memory, retaining the left then right hand side fields
+    join = factory.createJoin( new Pipe( "small" ), fields, new Pipe( "large" ), new Fields( "other" ) );
+
+    assertTrue( join instanceof Retain );
+    assertTrue( join.getPrevious()[ 0 ] instanceof HashJoin );
+    assertEquals( "small", join.getPrevious()[ 0 ].getPrevious()[ 1 ].getName() );
+
+    join = factory.createJoin( null, new Pipe( "small" ), fields, new Pipe( "large" ), new Fields( "other" ), null, new LeftJoin() );
+
+    assertTrue( join instanceof CoGroup );
+
+    // sizes of unbound sources are unknown
+    join = factory.createJoin( new Pipe( "large" ), fields, new Pipe( "unknown" ), new Fields( "other" ) );
+
+    assertTrue( join instanceof CoGroup );
+    assertFalse( factory.getSourceNames().contains( "unknown" ) );
+    }
+
+  @Test
+  public void testBucketJoin() throws IOException
+    {
+    File directory = createDirectory( "bucket" );
+
+    ResourceStatsCatalog catalog = new ResourceStatsCatalog( new File( directory, "stats.properties" ) );
+    Properties properties = new Properties();
+
+    FlowFactory.setJoinMemoryThreshold( properties, 100 );
+
+    TestCopyFactory factory = new TestCopyFactory( properties, "bucketjoin" )
+    {
+    @Override
+    protected Pipe[] createAssembly( Map heads )
+      {
+      return Pipe.pipes( createJoin( getName(), (Pipe) heads.get( "left" ), new Fields( "line" ), (Pipe) heads.get( "right" ), new Fields( "line" ), new Fields( "line", "other" ), null ) );
+      }
+    };
+
+    factory.setResourceStatsCatalog( catalog );
+
+    Resource[] buckets = null;
+
+    for( String side : new String[]{"left", "right"} )
+      {
+      Stereotype<Protocol, Format> stereotype = new Stereotype<Protocol, Format>( Protocol.FILE, Format.TSV, side, null );
+
+      stereotype.addSchemeFor( Format.TSV, new TextLine( new Fields( "line" ), new Fields( "line" ) ) );
+      stereotype.setBucketing( 2, new Fields( "line" ), null );
+
+      factory.setSourceStereotype( side, stereotype );
+
+      buckets = new Resource[ 2 ];
+
+      for( int i = 0; i < buckets.length; i++ )
+        {
+        File file = writeFile( directory, side + "-" + i, i == 0 ? "a" : "b" );
+
+        buckets[ i ] = new Resource( file.getPath(), Protocol.FILE, Format.TSV, SinkMode.KEEP );
+        catalog.setStats( buckets[ i ], new ResourceStats( 60, -1, -1, -1, -1 ) );
+        }
+
+      factory.addSourceResource( side, buckets );
+      }
+
+    File sink = new File( directory, "sink" );
+
+    factory.addSinkResource( new Resource( sink.getPath(), Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+
+    Pipe join = ( (FlowFactory) factory ).createAssembly( factory.createHeads() )[ 0 ];
+
+    assertTrue( join instanceof Merge );
+    assertEquals( 2, join.getPrevious().length );
+    assertTrue( join.getPrevious()[ 0 ] instanceof HashJoin );
+    assertEquals( FlowFactory.bucketHeadName( "right", 0 ), join.getPrevious()[ 0 ].getPrevious()[ 1 ].getName() );
+
+    factory.create().complete();
+
+    List<String> lines = Files.readAllLines( sink.toPath(), Charset.forName( "UTF-8" ) );
+
+    Collections.sort( lines );
+
+    assertEquals( Arrays.asList( "a", "b" ), lines );
+
+    // a skewed right hand side bucket no longer fits, though the average bucket does
+    catalog.setStats( buckets[ 0 ], new ResourceStats( 10, -1, -1, -1, -1 ) );
+    catalog.setStats( buckets[ 1 ], new ResourceStats( 110, -1, -1, -1, -1 ) );
+
+    assertTrue( ( (FlowFactory) factory ).createAssembly( factory.createHeads() )[ 0 ] instanceof CoGroup );
+    }
+
+  @Test
+  public void testCompaction() throws IOException
+    {
+    File directory = createDirectory( "compaction" );
+
+    List<Resource> resources = new ArrayList<Resource>();
+
+    for( int i = 0; i < 5; i++ )
+      {
+      File file = writeFile( directory, "small-" + i, Integer.toString( i ) );
+
+      resources.add( new Resource( file.getPath(), Protocol.FILE, Format.TSV, SinkMode.KEEP ) );
+      }
+
+    TestCopyFactory consumer = new TestCopyFactory( "consumer" );
+
+    for( Resource resource : resources )
+      consumer.addSourceResource( resource );
+
+    Properties properties = new Properties();
+
+    CompactionFlowFactory.setTargetSize( properties, 5 );
+
+    Stereotype<Protocol, Format> stereotype = new Stereotype<Protocol, Format>( Protocol.FILE, Format.TSV, "lines", null );
+
+    stereotype.addSchemeFor( Format.TSV, new TextLine( new Fields( "line" ), new Fields( "line" ) ) );
+
+    File output = new File( directory, "compacted" );
+    assertTrue( output.mkdirs() );
+
+    CompactionFlowFactory<Protocol, Format> factory = new CompactionFlowFactory<Protocol, Format>( properties, "compaction", stereotype, new LocalFlowConnector( properties ), output.getPath() );
+
+    factory.getProtocolHandlers( null ).add( new ConversionHandler() );
+    factory.addConsumer( consumer );
+
+    CascadeFactory cascadeFactory = new CascadeFactory( null, "compaction" );
+
+    cascadeFactory.addProcessFactory( consumer );
+    cascadeFactory.addProcessFactory( (ProcessFactory) factory );
+
+    List<Resource<Protocol, Format, SinkMode>> compacted = factory.compact( (List) resources );
+
+    // two files of two bytes fit the target size, the last file is left alone
+    assertEquals( 2, compacted.size() );
+    assertTrue( cascadeFactory.getSourceDependenciesOn( resources.get( 0 ) ).contains( consumer ) );
+
+    factory.create().complete();
+
+    assertEquals( "0\n1\n", new String( Files.readAllBytes( new File( compacted.get( 0 ).getIdentifier() ).toPath() ), "UTF-8" ) );
+    assertEquals( Arrays.asList( compacted.get( 0 ), compacted.get( 1 ), resources.get( 4 ) ), consumer.getSourceResources( "consumer" ) );
+
+    // the swap goes through the cascade factory, keeping its resource graph in sync
+    assertTrue( cascadeFactory.getSourceDependenciesOn( compacted.get( 0 ) ).contains( consumer ) );
+    assertFalse( cascadeFactory.getSourceDependenciesOn( resources.get( 0 ) ).contains( consumer ) );
+    }
+
+  @Test
+  public void testCoalescing() throws IOException
+    {
+    File directory = createDirectory( "coalesce" );
+
+    Properties properties = new Properties();
+
+    FlowFactory.setCoalesceSize( properties, 5 );
+
+    TestCopyFactory factory = new TestCopyFactory( properties, "coalesce" );
+
+    factory.addProtocolHandlers( "combining", Collections.<ProtocolHandler<Protocol, Format>>singletonList( new CombiningConversionHandler() ) );
+
+    for( int i = 0; i < 5; i++ )
+      {
+      File file = writeFile( directory, "small-" + i, Integer.toString( i ) );
+
+      factory.addSourceResource( new Resource( "combining", file.getPath(), Protocol.FILE, Format.TSV, SinkMode.KEEP ) );
+      }
+
+    File sink = new File( directory, "sink" );
+
+    factory.addSinkResource( new Resource( sink.getPath(), Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+
+    Tap tap = factory.getSourceTapFor( "coalesce" );
+
+    assertTrue( tap instanceof MultiSourceTap );
+
+    int children = 0;
+
+    for( Iterator iterator = ( (MultiSourceTap) tap ).getChildTaps(); iterator.hasNext(); iterator.next() )
+      children++;
+
+    // two units of two files each, and the last file on its own
+    assertEquals( 3, children );
+
+    factory.create().complete();
+
+    List<String> lines = Files.readAllLines( sink.toPath(), Charset.forName( "UTF-8" ) );
+
+    Collections.sort( lines );
+
+    assertEquals( Arrays.asList( "0", "1", "2", "3", "4" ), lines );
+    }
+
+  @Test
+  public void testParallelRead() throws IOException
+    {
+    File directory = createDirectory( "parallel" );
+
+    Properties properties = new Properties();
+
+    FlowFactory.setParallelRead( properties, "parallel", true );
+    FlowFactory.setParallelReadThreads( properties, 3 );
+    FlowFactory.setParallelReadBuffer( properties, 3 );
+
+    TestCopyFactory factory = new TestCopyFactory( properties, "parallel" );
+
+    List<String> expected = new ArrayList<String>();
+
+    for( int i = 0; i < 5; i++ )
+      {
+      String[] lines = new String[ 10 ];
+
+      for( int j = 0; j < lines.length; j++ )
+        lines[ j ] = i + "-" + j;
+
+      File file = writeFile( directory, "part-" + i, lines );
+
+      expected.addAll( Arrays.asList( lines ) );
+
+      factory.addSourceResource( new Resource( file.getPath(), Protocol.FILE, Format.TSV, SinkMode.KEEP ) );
+      }
+
+    File sink = new File( directory, "sink" );
+
+    factory.addSinkResource( new Resource( sink.getPath(), Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+
+    Tap tap = factory.getSourceTapFor( "parallel" );
+
+    assertTrue( tap instanceof ParallelMultiSourceTap );
+    assertTrue( ( (ParallelMultiSourceTap) tap ).isOrdered() );
+
+    factory.create().complete();
+
+    // ordered delivery returns every resource in turn, as a MultiSourceTap would
+    assertEquals( expected, Files.readAllLines( sink.toPath(), Charset.forName( "UTF-8" ) ) );
+    }
+
+  @Test
+  public void testParallelWrite() throws IOException
+    {
+    File directory = createDirectory( "parallel-write" );
+
+    Properties properties = new Properties();
+
+    FlowFactory.setParallelWrite( properties, "parallel", Protocol.FILE );
+    FlowFactory.setParallelWriteBuffer( properties, 2 );
+
+    TestCopyFactory factory = new TestCopyFactory( properties, "parallel" );
+
+    List<String> expected = new ArrayList<String>();
+
+    for( int i = 0; i < 20; i++ )
+      expected.add( Integer.toString( i ) );
+
+    File source = writeFile( directory, "source", expected.toArray( new String[ expected.size() ] ) );
+
+    factory.addSourceResource( new Resource( source.getPath(), Protocol.FILE, Format.TSV, SinkMode.KEEP ) );
+
+    File[] sinks = new File[ 3 ];
+
+    for( int i = 0; i < sinks.length; i++ )
+      {
+      sinks[ i ] = new File( directory, "sink-" + i );
+      factory.addSinkResource( new Resource( sinks[ i ].getPath(), Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+      }
+
+    Tap tap = factory.getSinkTapFor( "parallel" );
+
+    assertTrue( tap instanceof ParallelMultiSinkTap );
+    assertTrue( ( (ParallelMultiSinkTap) tap ).isThreaded( 0 ) );
+
+    factory.create().complete();
+
+    for( File sink : sinks )
+      assertEquals( expected, Files.readAllLines( sink.toPath(), Charset.forName( "UTF-8" ) ) );
+    }
+
+  @Test
+  public void testStreamingCopy() throws IOException
+    {
+    File directory = createDirectory( "streaming" );
+
+    File source = writeFile( directory, "source", "first line", "second line" );
+    File sink = new File( directory, "sink" );
+
+    TestCopyFactory factory = new TestCopyFactory( "copy" );
+
+    factory.addProtocolHandlers( "streaming", Collections.<ProtocolHandler<Protocol, Format>>singletonList( new StreamingConversionHandler() ) );
+    factory.addSourceResource( new Resource( "streaming", source.getPath(), Protocol.FILE, Format.TSV, SinkMode.KEEP ) );
+    factory.addSinkResource( new Resource( "streaming", sink.getPath(), Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+
+    Flow flow = factory.create();
+
+    assertTrue( flow instanceof ProcessFlow );
+
+    flow.complete();
+
+    assertEquals( "first line\nsecond line\n", new String( Files.readAllBytes( sink.toPath() ), "UTF-8" ) );
+    }
+
+  @Test
+  public void testStreamingTranscode() throws IOException
+    {
+    File directory = createDirectory( "transcode" );
+
+    File source = writeFile( directory, "source", "John,Smith,\"1 Main St, Springfield\"", "Jane,Doe,2 Elm St" );
+    File sink = new File( directory, "sink" );
+
+    TestCopyFactory factory = new TestCopyFactory( "copy" );
+    Stereotype<Protocol, Format> stereotype = new Stereotype<Protocol, Format>( "person", PersonStereotype.FIELDS );
+
+    factory.setSourceStereotype( "copy", stereotype );
+    factory.setSinkStereotype( "copy", stereotype );
+    factory.addProtocolHandlers( "streaming", Collections.<ProtocolHandler<Protocol, Format>>singletonList( new StreamingConversionHandler() ) );
+    factory.addFormatHandlers( "streaming", Collections.<FormatHandler<Protocol, Format>>singletonList( new DelimitedFormatHandler() ) );
+    factory.addSourceResource( new Resource( "streaming", source.getPath(), Protocol.FILE, Format.CSV, SinkMode.KEEP ) );
+    factory.addSinkResource( new Resource( "streaming", sink.getPath(), Protocol.FILE, Format.TSV, SinkMode.REPLACE ) );
+
+    Flow flow = factory.create();
+
+    assertTrue( flow instanceof ProcessFlow );
+
+    flow.complete();
+
+    assertEquals( "John\tSmith\t1 Main St, Springfield\nJane\tDoe\t2 Elm St\n", new String( Files.readAllBytes( sink.toPath() ), "UTF-8" ) );
+    }
+  }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.tap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import cascading.CascadingTestCase;
+import cascading.flow.FlowProcess;
+import cascading.scheme.local.TextLine;
+import cascading.tap.local.FileTap;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntryCollector;
+import cascading.tuple.TupleEntryIterator;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class MemoryTapTest extends CascadingTestCase
+  {
+  @Test
+  public void testSpill() throws IOException
+    {
+    FileTap fileTap = new FileTap( new TextLine( new Fields( "line" ), new Fields( "line" ) ), "some/intermediate" );
+    MemoryTap memoryTap = new MemoryTap( fileTap, 200, new File( System.getProperty( "java.io.tmpdir" ) ) );
+
+    assertEquals( "some/intermediate", memoryTap.getIdentifier() );
+    assertFalse( memoryTap.resourceExists( new Properties() ) );
+
+    TupleEntryCollector collector = memoryTap.openForWrite( FlowProcess.NULL );
+
+    for( int i = 0; i < 10; i++ )
+      collector.add( new Tuple( "line " + i ) );
+
+    collector.close();
+
+    assertTrue( memoryTap.resourceExists( new Properties() ) );
+    assertTrue( memoryTap.isSpilled() );
+
+    TupleEntryIterator iterator = memoryTap.openForRead( FlowProcess.NULL );
+
+    for( int i = 0; i < 10; i++ )
+      assertEquals( "line " + i, iterator.next().getString( "line" ) );
+
+    assertFalse( iterator.hasNext() );
+
+    iterator.close();
+
+    assertTrue( memoryTap.deleteResource( new Properties() ) );
+    assertFalse( memoryTap.resourceExists( new Properties() ) );
+    }
+
+  @Test
+  public void testSharedBudget() throws IOException
+    {
+    File spillDirectory = new File( System.getProperty( "java.io.tmpdir" ) );
+    MemoryBudget memoryBudget = new MemoryBudget( 500 );
+    MemoryTap first = new MemoryTap( new FileTap( new TextLine( new Fields( "line" ), new Fields( "line" ) ), "some/first" ), memoryBudget, spillDirectory );
+    MemoryTap second = new MemoryTap( new FileTap( new TextLine( new Fields( "line" ), new Fields( "line" ) ), "some/second" ), memoryBudget, spillDirectory );
+
+    write( first, 5 );
+
+    assertFalse( first.isSpilled() );
+    assertTrue( memoryBudget.getReserved() > 0 );
+
+    // the budget held by the first tap is not available to the second
+    write( second, 5 );
+
+    assertTrue( second.isSpilled() );
+
+    // deleting a resource returns its memory to the budget
+    assertTrue( first.deleteResource( new Properties() ) );
+    assertTrue( second.deleteResource( new Properties() ) );
+    assertEquals( 0, memoryBudget.getReserved() );
+
+    write( second, 5 );
+
+    assertFalse( second.isSpilled() );
+    }
+
+  private void write( MemoryTap memoryTap, int count ) throws IOException
+    {
+    TupleEntryCollector collector = memoryTap.openForWrite( FlowProcess.NULL );
+
+    for( int i = 0; i < count; i++ )
+      collector.add( new Tuple( "line " + i ) );
+
+    collector.close();
+    }
+  }
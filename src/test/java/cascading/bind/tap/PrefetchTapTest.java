@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2007-2017 Xplenty, Inc. All Rights Reserved.
+ *
+ * Project and contact information: http://www.cascading.org/
+ *
+ * This file is part of the Cascading project.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package cascading.bind.tap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import cascading.CascadingTestCase;
+import cascading.bind.ConversionHandler;
+import cascading.bind.Format;
+import cascading.bind.Protocol;
+import cascading.bind.catalog.handler.ProtocolHandler;
+import cascading.bind.catalog.handler.ProtocolHandlers;
+import cascading.flow.FlowProcess;
+import cascading.scheme.local.TextLine;
+import cascading.tap.Tap;
+import cascading.tap.local.FileTap;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntryCollector;
+import cascading.tuple.TupleEntryIterator;
+import org.junit.Test;
+
+/**
+ *
+ */
+public class PrefetchTapTest extends CascadingTestCase
+  {
+  @Test
+  public void testPrefetch() throws IOException
+    {
+    FileTap fileTap = new FileTap( new TextLine( new Fields( "line" ), new Fields( "line" ) ), "some/prefetched" );
+    MemoryTap memoryTap = new MemoryTap( fileTap, Long.MAX_VALUE, new File( System.getProperty( "java.io.tmpdir" ) ) );
+
+    TupleEntryCollector collector = memoryTap.openForWrite( FlowProcess.NULL );
+
+    for( int i = 0; i < 100; i++ )
+      collector.add( new Tuple( "line " + i ) );
+
+    collector.close();
+
+    PrefetchTap prefetchTap = new PrefetchTap( memoryTap, 4 );
+
+    assertEquals( "some/prefetched", prefetchTap.getIdentifier() );
+
+    TupleEntryIterator iterator = prefetchTap.openForRead( FlowProcess.NULL );
+
+    for( int i = 0; i < 100; i++ )
+      assertEquals( "line " + i, iterator.next().getString( "line" ) );
+
+    assertFalse( iterator.hasNext() );
+
+    iterator.close();
+    }
+
+  @Test
+  public void testDecorate()
+    {
+    ProtocolHandler<Protocol, Format> handler = new ConversionHandler()
+    {
+    @Override
+    public Map<String, List<String>> getDefaultProperties( Protocol protocol )
+      {
+      if( protocol != Protocol.HTTP )
+        return null;
+
+      return Collections.singletonMap( PrefetchTap.PREFETCH_SIZE, Arrays.asList( "16" ) );
+      }
+    };
+
+    ProtocolHandlers<Protocol, Format> handlers = new ProtocolHandlers<Protocol, Format>( Collections.singletonList( handler ) );
+
+    Tap httpTap = new HTTPTap( new TextLine(), "http://localhost/", null );
+    Tap fileTap = new FileTap( new TextLine(), "some/file" );
+
+    Tap decorated = handlers.decorate( new Properties(), Protocol.HTTP, httpTap );
+
+    assertTrue( decorated instanceof PrefetchTap );
+    assertEquals( 16, ( (PrefetchTap) decorated ).getPrefetchSize() );
+    assertSame( fileTap, handlers.decorate( new Properties(), Protocol.FILE, fileTap ) );
+
+    Properties properties = new Properties();
+
+    properties.setProperty( PrefetchTap.PREFETCH_SIZE + "." + Protocol.HTTP, "0" );
+
+    assertSame( httpTap, handlers.decorate( properties, Protocol.HTTP, httpTap ) );
+    }
+  }